@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Starts the application against its own embedded H2 database and the test binder, without web server.
+ */
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, Object> properties) {
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        arguments.put("spring.main.web-application-type", "none");
+        arguments.put("spring.r2dbc.url", "r2dbc:h2:file://././target/benchmark");
+        arguments.put("spring.liquibase.url", "jdbc:h2:file:./target/benchmark");
+        arguments.put("logging.level.root", "warn");
+        arguments.put("logging.level.org.springframework.web.server.adapter.HttpWebHandlerAdapter", "warn");
+        arguments.put("logging.level.org.springframework.r2dbc.core.DefaultDatabaseClient", "warn");
+        arguments.put("logging.level.org.springframework.integration.handler.BridgeHandler", "warn");
+        arguments.putAll(properties);
+        // command line arguments, to take precedence over the test application-default.yml
+        return new SpringApplicationBuilder(ConfigApplication.class, TestChannelBinderConfiguration.class)
+                .run(arguments.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new));
+    }
+
+    /**
+     * The test binder keeps all the sent messages in memory, they must be discarded between iterations.
+     */
+    static void drain(OutputDestination output) {
+        while (output.receive(0) != null) {
+            // discarded
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Encoding of a parameter set and decoding of a bulk update in the formats negotiated by the controller. The sizes of
+ * the encoded set and update are reported as secondary results, to compare the payloads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentFormatBenchmark {
+
+    private static final TypeReference<List<ParameterInfos>> LIST_TYPE = new TypeReference<>() { };
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() { };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"20", "200"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<ParameterInfos> parameters;
+
+    private byte[] encodedParameters;
+
+    private byte[] encodedUpdate;
+
+    /**
+     * The sizes in bytes of the encoded payloads, reported with the results of each benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSizes {
+
+        public long parametersBytes;
+
+        public long updateBytes;
+
+        @Setup(Level.Iteration)
+        public void setUp(ContentFormatBenchmark benchmark) {
+            parametersBytes = benchmark.encodedParameters.length;
+            updateBytes = benchmark.encodedUpdate.length;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        SplittableRandom random = new SplittableRandom(42);
+        parameters = IntStream.range(0, size)
+                .mapToObj(i -> new ParameterInfos("parameter" + i, "value" + random.nextLong()))
+                .toList();
+        Map<String, Object> update = new LinkedHashMap<>();
+        parameters.forEach(parameter -> update.put(parameter.getName(), parameter.getValue()));
+        encodedParameters = objectMapper.writeValueAsBytes(parameters);
+        encodedUpdate = objectMapper.writeValueAsBytes(update);
+    }
+
+    @Benchmark
+    public byte[] encodeParameters(PayloadSizes sizes) throws IOException {
+        return objectMapper.writeValueAsBytes(parameters);
+    }
+
+    @Benchmark
+    public List<ParameterInfos> decodeParameters(PayloadSizes sizes) throws IOException {
+        return objectMapper.readValue(encodedParameters, LIST_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeUpdate(PayloadSizes sizes) throws IOException {
+        return objectMapper.readValue(encodedUpdate, MAP_TYPE);
+    }
+}
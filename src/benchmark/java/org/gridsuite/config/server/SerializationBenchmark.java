@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.repository.ParameterEntity;
+import org.gridsuite.config.server.service.CachedParameters;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Mapping and JSON serialization of a parameter set, as done for each response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final ResolvableType PARAMETER_INFOS_TYPE = ResolvableType.forClass(ParameterInfos.class);
+
+    @Param({"20", "200"})
+    public int size;
+
+    private List<ParameterEntity> entities;
+
+    private List<ParameterInfos> parameters;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper);
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        entities = IntStream.range(0, size)
+                .mapToObj(i -> new ParameterEntity(UUID.randomUUID(), "user", "benchmark", "parameter" + i, "value" + random.nextLong()))
+                .toList();
+        parameters = entities.stream().map(ParameterEntity::toConfigInfos).toList();
+    }
+
+    @Benchmark
+    public void toConfigInfos(Blackhole blackhole) {
+        for (ParameterEntity entity : entities) {
+            blackhole.consume(entity.toConfigInfos());
+        }
+    }
+
+    @Benchmark
+    public Integer encodeFlux() {
+        return encoder.encode(Flux.fromIterable(parameters), DefaultDataBufferFactory.sharedInstance, PARAMETER_INFOS_TYPE, MediaType.APPLICATION_JSON, Map.of())
+                .map(DataBuffer::readableByteCount)
+                .reduce(0, Integer::sum)
+                .block();
+    }
+
+    @Benchmark
+    public byte[] writeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(parameters);
+    }
+
+    @Benchmark
+    public CachedParameters cachedParameters() {
+        return CachedParameters.of(parameters, objectMapper);
+    }
+}
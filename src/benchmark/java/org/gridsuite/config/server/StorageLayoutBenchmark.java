@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.service.CachedParameters;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per parameter and the document storage layouts, without cache, on the read and write paths.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class StorageLayoutBenchmark {
+
+    private static final int USERS = 1000;
+
+    private static final int BULK_PARAMETERS = 10;
+
+    private static final String APP_NAME = "benchmark";
+
+    @Param({"rows", "document"})
+    public String storageMode;
+
+    @Param({"20", "200"})
+    public int parametersPerUser;
+
+    private ConfigurableApplicationContext context;
+
+    private ConfigService configService;
+
+    private OutputDestination output;
+
+    @State(Scope.Thread)
+    public static class UserState {
+
+        // fixed seed so that the runs of different layouts are comparable
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        String nextUserId() {
+            return userId(random.nextInt(USERS));
+        }
+
+        String nextValue() {
+            return "value" + random.nextInt();
+        }
+    }
+
+    private static String userId(int user) {
+        return "user" + user;
+    }
+
+    private static Map<String, Object> parameters(int count, String value) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            parameters.put("parameter" + i, value + i);
+        }
+        return parameters;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(Map.of("config.cache.enabled", false, "config.storage.mode", storageMode));
+        configService = context.getBean(ConfigService.class);
+        output = context.getBean(OutputDestination.class);
+        DatabaseClient databaseClient = context.getBean(DatabaseClient.class);
+        databaseClient.sql("DELETE FROM parameters").then().block();
+        databaseClient.sql("DELETE FROM parameters_documents").then().block();
+        Flux.range(0, USERS)
+                .concatMap(user -> configService.updateConfigParameters(userId(user), APP_NAME, parameters(parametersPerUser, "value")))
+                .blockLast();
+    }
+
+    @TearDown(Level.Iteration)
+    public void drainMessages() {
+        BenchmarkContexts.drain(output);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CachedParameters readApplicationParameters(UserState state) {
+        return configService.getCachedConfigParameters(state.nextUserId(), APP_NAME).block();
+    }
+
+    @Benchmark
+    public void writeParameter(UserState state) {
+        configService.updateConfigParameter(state.nextUserId(), APP_NAME, "parameter0", state.nextValue()).block();
+    }
+
+    @Benchmark
+    public void writeParameters(UserState state) {
+        configService.updateConfigParameters(state.nextUserId(), APP_NAME, parameters(BULK_PARAMETERS, state.nextValue())).block();
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fails on the blocking calls from the reactive threads, except those of the test environment: only the methods
+ * blocking themselves are allowed, the application code called back from them (the continuations of the database
+ * reads, for instance) still fails on its blocking calls.
+ */
+public class ConfigBlockHoundIntegration implements BlockHoundIntegration {
+
+    // the r2dbc-h2 driver runs the embedded H2 engine, reading its files and taking its locks, in the calling thread
+    private static final String H2_SESSION_CLIENT = "io.r2dbc.h2.client.SessionClient";
+
+    private static final List<String> H2_SESSION_CLIENT_METHODS = List.of("<init>", "close", "disableAutoCommit", "enableAutoCommit",
+            "execute", "prepareCommand", "query", "update");
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        builder.allowBlockingCallsInside(UUID.class.getName(), "randomUUID")
+                // the tests log synchronously to the console
+                .allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "writeBytes");
+        H2_SESSION_CLIENT_METHODS.forEach(method -> builder.allowBlockingCallsInside(H2_SESSION_CLIENT, method));
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.gridsuite.config.server.service.NotificationService.HEADER_PARAMETER_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the request paths on the Netty event loop, where BlockHound fails the blocking calls.
+ */
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class}, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class NonBlockingTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @AfterEach
+    void tearDown() {
+        parametersRepository.deleteAll().block();
+        parametersCache.evictAll();
+    }
+
+    private WebTestClient webTestClient() {
+        return WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+    }
+
+    // installed by blockhound-junit-platform
+    @Test
+    void testBlockHoundInstalled() {
+        assertThrows(Exception.class, () -> Mono.delay(Duration.ofMillis(1), Schedulers.parallel())
+                .doOnNext(i -> {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .block());
+    }
+
+    // the results of the embedded H2 database are emitted from within the driver, where blocking is allowed
+    @Test
+    void testBlockingInDatabaseContinuationFails() {
+        parametersRepository.upsert("userId", "foo", "theme", "dark").block();
+        assertThrows(Exception.class, () -> Mono.delay(Duration.ofMillis(1), Schedulers.parallel())
+                .flatMapMany(i -> parametersRepository.findAll())
+                .doOnNext(parameter -> {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .blockLast());
+    }
+
+    @Test
+    void testRequestPathsDontBlock() {
+        WebTestClient webTestClient = webTestClient();
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/theme?value=dark")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("theme", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("language", "fr"))
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("language", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .hasSize(2);
+
+        webTestClient.get()
+                .uri("/v1/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .isEqualTo(List.of(new ParameterInfos("theme", "dark"), new ParameterInfos("language", "fr")));
+
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/theme")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("theme", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the running application over HTTP with a mixed read/write load and reports the throughput and latency
+ * percentiles per endpoint. Configured with system properties:
+ * <ul>
+ *     <li>loadtest.users: number of distinct users (default 200)</li>
+ *     <li>loadtest.concurrency: number of concurrent requests (default 32)</li>
+ *     <li>loadtest.duration: duration of the measure, after a warm-up of a tenth of it (default 30s)</li>
+ *     <li>loadtest.read-ratio: ratio of reads among the operations (default 0.9)</li>
+ *     <li>loadtest.bulk-ratio: ratio of writes being a burst of bulk updates (default 0.1)</li>
+ *     <li>loadtest.bulk-burst: number of concurrent bulk updates in a burst (default 8)</li>
+ *     <li>loadtest.bulk-size: number of parameters of a bulk update (default 40)</li>
+ *     <li>loadtest.max-p99-ms: if set, fails when the p99 latency of an endpoint is above it</li>
+ *     <li>loadtest.min-throughput: if set, fails when the overall throughput (req/s) is below it</li>
+ * </ul>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        classes = {ConfigApplication.class, TestChannelBinderConfiguration.class},
+        properties = {
+            "spring.r2dbc.url=r2dbc:h2:file://././target/loadtest",
+            "spring.liquibase.url=jdbc:h2:file:./target/loadtest",
+            "logging.level.org.springframework.web.server.adapter.HttpWebHandlerAdapter=warn",
+            "logging.level.org.springframework.r2dbc.core.DefaultDatabaseClient=warn",
+            "logging.level.org.springframework.integration.handler.BridgeHandler=warn"
+        })
+class ConfigLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigLoadTest.class);
+
+    private static final List<String> APP_NAMES = List.of("common", "study", "explore");
+
+    private static final int PARAMETERS_PER_APP = 10;
+
+    private final int users = Integer.getInteger("loadtest.users", 200);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    private final Duration duration = Duration.parse("PT" + System.getProperty("loadtest.duration", "30s").toUpperCase());
+    private final double readRatio = Double.parseDouble(System.getProperty("loadtest.read-ratio", "0.9"));
+    private final double bulkRatio = Double.parseDouble(System.getProperty("loadtest.bulk-ratio", "0.1"));
+    private final int bulkBurst = Integer.getInteger("loadtest.bulk-burst", 8);
+    private final int bulkSize = Integer.getInteger("loadtest.bulk-size", 40);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @Autowired
+    private OutputDestination output;
+
+    private WebClient webClient;
+
+    @Test
+    void load() {
+        webClient = WebClient.create("http://localhost:" + port + "/" + ConfigApi.API_VERSION);
+        parametersRepository.deleteAll().block();
+        Flux.range(0, users)
+                .flatMap(user -> Flux.fromIterable(APP_NAMES)
+                        .concatMap(appName -> parametersRepository.upsertAll(userId(user), appName, parameters(PARAMETERS_PER_APP, "value"))), 8)
+                .blockLast();
+
+        LOGGER.info("Warm-up during {}", duration.dividedBy(10));
+        run(duration.dividedBy(10), new LatencyStatistics());
+
+        LOGGER.info("Load test with {} users, {} concurrent requests during {}", users, concurrency, duration);
+        LatencyStatistics statistics = new LatencyStatistics();
+        run(duration, statistics);
+
+        List<LatencyStatistics.EndpointStatistics> results = statistics.compute(duration);
+        StringBuilder report = new StringBuilder(LatencyStatistics.header());
+        results.forEach(result -> report.append(System.lineSeparator()).append(result));
+        double throughput = results.stream().mapToDouble(LatencyStatistics.EndpointStatistics::throughput).sum();
+        report.append(System.lineSeparator()).append(String.format("total throughput: %.1f req/s", throughput));
+        LOGGER.info("Load test results{}{}", System.lineSeparator(), report);
+
+        assertTrue(results.stream().allMatch(result -> result.errors() == 0), "Some requests failed");
+        String maxP99 = System.getProperty("loadtest.max-p99-ms");
+        if (maxP99 != null) {
+            results.forEach(result -> assertTrue(result.p99Millis() <= Double.parseDouble(maxP99),
+                    () -> "p99 of " + result.endpoint() + " above " + maxP99 + " ms"));
+        }
+        String minThroughput = System.getProperty("loadtest.min-throughput");
+        if (minThroughput != null) {
+            assertTrue(throughput >= Double.parseDouble(minThroughput), () -> "Throughput below " + minThroughput + " req/s");
+        }
+    }
+
+    private void run(Duration runDuration, LatencyStatistics statistics) {
+        Flux.<Integer>generate(sink -> sink.next(0))
+                .flatMap(i -> nextOperation(statistics), concurrency)
+                .take(runDuration)
+                .blockLast();
+        // the test binder keeps all the sent messages in memory
+        while (output.receive(0) != null) {
+            // discarded
+        }
+    }
+
+    private Mono<Void> nextOperation(LatencyStatistics statistics) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(users);
+        String userId = userId(user);
+        String appName = APP_NAMES.get(random.nextInt(APP_NAMES.size()));
+        String name = "parameter" + random.nextInt(PARAMETERS_PER_APP);
+        double operation = random.nextDouble();
+        if (operation < readRatio) {
+            int read = random.nextInt(3);
+            if (read == 0) {
+                return timed(statistics, "GET /parameters",
+                        webClient.get().uri("/parameters").header("userId", userId).retrieve().toBodilessEntity());
+            } else if (read == 1) {
+                return timed(statistics, "GET /applications/{appName}/parameters",
+                        webClient.get().uri("/applications/{appName}/parameters", appName).header("userId", userId).retrieve().toBodilessEntity());
+            }
+            return timed(statistics, "GET /applications/{appName}/parameters/{name}",
+                    webClient.get().uri("/applications/{appName}/parameters/{name}", appName, name).header("userId", userId).retrieve().toBodilessEntity());
+        } else if (operation < readRatio + (1 - readRatio) * bulkRatio) {
+            Map<String, String> parameters = parameters(bulkSize, "value" + random.nextInt());
+            return Flux.range(0, bulkBurst)
+                    .flatMap(i -> timed(statistics, "PUT /applications/{appName}/parameters",
+                            webClient.put().uri("/applications/{appName}/parameters", appName).header("userId", userId((user + i) % users))
+                                    .bodyValue(parameters).retrieve().toBodilessEntity()))
+                    .then();
+        }
+        return timed(statistics, "PUT /applications/{appName}/parameters/{name}",
+                webClient.put().uri("/applications/{appName}/parameters/{name}?value={value}", appName, name, "value" + random.nextInt())
+                        .header("userId", userId).retrieve().toBodilessEntity());
+    }
+
+    private static Mono<Void> timed(LatencyStatistics statistics, String endpoint, Mono<?> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request
+                    .doOnSuccess(response -> statistics.record(endpoint, System.nanoTime() - start))
+                    .doOnError(e -> statistics.recordError(endpoint))
+                    .onErrorResume(e -> Mono.empty())
+                    .then();
+        }).subscribeOn(Schedulers.parallel());
+    }
+
+    private static String userId(int user) {
+        return "user" + user;
+    }
+
+    private static Map<String, String> parameters(int count, String value) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            parameters.put("parameter" + i, value + i);
+        }
+        return parameters;
+    }
+}
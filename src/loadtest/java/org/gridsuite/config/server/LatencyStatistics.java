@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the latencies of the requests per endpoint, and computes the throughput and the latency percentiles.
+ */
+final class LatencyStatistics {
+
+    record EndpointStatistics(String endpoint, long requests, long errors, double throughput,
+                              double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f",
+                    endpoint, requests, errors, throughput, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+    }
+
+    private static final class EndpointLatencies {
+        private final List<Long> nanos = new ArrayList<>();
+        private final AtomicLong errors = new AtomicLong();
+
+        private synchronized void record(long latencyNanos) {
+            nanos.add(latencyNanos);
+        }
+
+        private synchronized long[] sorted() {
+            long[] sorted = nanos.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private final Map<String, EndpointLatencies> latencies = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long latencyNanos) {
+        latencies.computeIfAbsent(endpoint, e -> new EndpointLatencies()).record(latencyNanos);
+    }
+
+    void recordError(String endpoint) {
+        latencies.computeIfAbsent(endpoint, e -> new EndpointLatencies()).errors.incrementAndGet();
+    }
+
+    List<EndpointStatistics> compute(Duration elapsed) {
+        Map<String, EndpointStatistics> statistics = new TreeMap<>();
+        latencies.forEach((endpoint, endpointLatencies) -> {
+            long[] sorted = endpointLatencies.sorted();
+            statistics.put(endpoint, new EndpointStatistics(endpoint, sorted.length, endpointLatencies.errors.get(),
+                    sorted.length * 1000d / elapsed.toMillis(),
+                    percentileMillis(sorted, 50), percentileMillis(sorted, 95), percentileMillis(sorted, 99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6));
+        });
+        return List.copyOf(statistics.values());
+    }
+
+    static String header() {
+        return String.format("%-40s %10s %8s %12s %10s %10s %10s %10s",
+                "endpoint", "requests", "errors", "req/s", "p50 (ms)", "p95 (ms)", "p99 (ms)", "max (ms)");
+    }
+
+    // nearest-rank percentile
+    private static double percentileMillis(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100d * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+}
@@ -16,4 +16,6 @@ final class ConfigApi {
     }
 
     static final String API_VERSION = "v1";
+
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
 }
@@ -8,6 +8,7 @@ package org.gridsuite.config.server;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.web.reactive.config.EnableWebFlux;
 
 /**
@@ -16,6 +17,7 @@ import org.springframework.web.reactive.config.EnableWebFlux;
 
 @SuppressWarnings("checkstyle:HideUtilityClassConstructor")
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableWebFlux
 public class ConfigApplication {
 
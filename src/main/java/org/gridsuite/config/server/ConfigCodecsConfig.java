@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Binary CBOR and Smile codecs for the calls of the other services, configured as the JSON object mapper.
+ * JSON stays the default format, when no other format is explicitly preferred.
+ */
+@Configuration
+public class ConfigCodecsConfig implements WebFluxConfigurer {
+
+    private final ObjectMapper cborMapper;
+
+    private final ObjectMapper smileMapper;
+
+    public ConfigCodecsConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.cborMapper = objectMapperBuilder.getObject().factory(new CBORFactory()).build();
+        this.smileMapper = objectMapperBuilder.getObject().factory(new SmileFactory()).build();
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper));
+        configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper));
+        configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper));
+        configurer.customCodecs().register(new Jackson2CborEncoder(cborMapper));
+    }
+}
@@ -9,14 +9,27 @@ package org.gridsuite.config.server;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.gridsuite.config.server.dto.ParameterChangeInfos;
 import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.dto.ParametersDeltaInfos;
+import org.gridsuite.config.server.dto.ParametersSearchInfos;
+import org.gridsuite.config.server.dto.UserParametersInfos;
+import org.gridsuite.config.server.service.CachedParameters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,27 +41,116 @@ import java.util.Map;
 @RequestMapping(value = "/" + ConfigApi.API_VERSION)
 public class ConfigController {
 
+    private static final List<MediaType> BINARY_MEDIA_TYPES = List.of(MediaType.APPLICATION_CBOR, MediaType.parseMediaType(ConfigApi.APPLICATION_SMILE_VALUE));
+
     private final ConfigService configService;
 
-    public ConfigController(ConfigService configService) {
+    private final Duration heartbeatInterval;
+
+    public ConfigController(ConfigService configService,
+                            @Value("${config.events.heartbeat-interval:PT30S}") Duration heartbeatInterval) {
         this.configService = configService;
+        this.heartbeatInterval = heartbeatInterval;
     }
 
-    @GetMapping(value = "/parameters", produces = "application/json")
+    // the ETag is checked by the ResponseEntity handling, which answers 304 without writing the body on If-None-Match
+    private static ResponseEntity<Object> toResponse(CachedParameters parameters, MediaType mediaType) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(mediaType).varyBy(HttpHeaders.ACCEPT);
+        if (MediaType.APPLICATION_JSON.equals(mediaType)) {
+            return response.eTag(parameters.getVersion()).body(parameters.toDataBuffer());
+        }
+        // the binary formats are encoded on each request, their ETag differs from the one of the JSON representation
+        return response.eTag(parameters.getVersion() + "-" + mediaType.getSubtype()).body(parameters.getParameters());
+    }
+
+    // JSON unless a binary format is preferred, so that the clients accepting any media type get JSON
+    private static MediaType selectMediaType(ServerHttpRequest request) {
+        List<MediaType> acceptedMediaTypes = new ArrayList<>(request.getHeaders().getAccept());
+        acceptedMediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            if (acceptedMediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            for (MediaType binaryMediaType : BINARY_MEDIA_TYPES) {
+                if (acceptedMediaType.isCompatibleWith(binaryMediaType)) {
+                    return binaryMediaType;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // preferred to the NDJSON stream when any media type is accepted, having a params condition
+    @GetMapping(value = "/parameters", params = "streaming!=true",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ConfigApi.APPLICATION_SMILE_VALUE})
     @Operation(summary = "get all configuration parameters for a user")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "All configuration parameters for the user"),
+        @ApiResponse(responseCode = "304", description = "The configuration parameters didn't change since the version given in If-None-Match")})
+    public Mono<ResponseEntity<Object>> getParameters(@RequestHeader("userId") String userId, ServerHttpRequest request) {
+        MediaType mediaType = selectMediaType(request);
+        return configService.getCachedConfigParameters(userId).map(parameters -> toResponse(parameters, mediaType));
+    }
+
+    // the rows are written as they are read, on the demand of the client
+    @GetMapping(value = "/parameters", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "stream all configuration parameters for a user, one JSON object per line")
     @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "All configuration parameters for the user")})
-    public ResponseEntity<Flux<ParameterInfos>> getParameters(@RequestHeader("userId") String userId) {
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(configService.getConfigParameters(userId));
+    public Flux<ParameterInfos> streamParameters(@RequestHeader("userId") String userId) {
+        return configService.streamConfigParameters(userId);
     }
 
-    @GetMapping(value = "/applications/{appName}/parameters", produces = "application/json")
+    // the JSON array is written element by element, without being buffered
+    @GetMapping(value = "/parameters", params = "streaming=true", produces = "application/json")
+    @Operation(summary = "stream all configuration parameters for a user, as a JSON array")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "All configuration parameters for the user")})
+    public Flux<ParameterInfos> streamParametersArray(@RequestHeader("userId") String userId) {
+        return configService.streamConfigParameters(userId);
+    }
+
+    @GetMapping(value = "/applications/{appName}/parameters",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ConfigApi.APPLICATION_SMILE_VALUE})
     @Operation(summary = "get all configuration parameters for a user and an application")
-    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The list of configuration parameters for the application")})
-    public ResponseEntity<Flux<ParameterInfos>> getParameters(@RequestHeader("userId") String userId, @PathVariable(value = "appName") String appName) {
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(configService.getConfigParameters(userId, appName));
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The list of configuration parameters for the application"),
+        @ApiResponse(responseCode = "304", description = "The configuration parameters didn't change since the version given in If-None-Match")})
+    public Mono<ResponseEntity<Object>> getParameters(@RequestHeader("userId") String userId, @PathVariable(value = "appName") String appName,
+                                                      ServerHttpRequest request) {
+        MediaType mediaType = selectMediaType(request);
+        return configService.getCachedConfigParameters(userId, appName).map(parameters -> toResponse(parameters, mediaType));
+    }
+
+    @PostMapping(value = "/parameters/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "get the configuration parameters of several users")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The configuration parameters grouped by user, users without parameters are omitted. " +
+        "As a JSON array, or one JSON object per line with application/x-ndjson")})
+    public Flux<UserParametersInfos> searchParameters(@RequestBody ParametersSearchInfos search) {
+        return configService.searchConfigParameters(search);
+    }
+
+    @GetMapping(value = "/parameters/changes", produces = "application/json")
+    @Operation(summary = "get the configuration parameters of a user changed after a cursor",
+        description = "The cursor is 0 for the first delta, then the sequence returned by the previous delta. It isn't the version of the notifications")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The changed parameters, deleted parameters having their default value or a null value, " +
+        "and the sequence to ask the next changes from, or all the parameters with reset when some deletions have been purged or the cursor is unknown")})
+    public Mono<ResponseEntity<ParametersDeltaInfos>> getParametersDelta(@RequestHeader("userId") String userId,
+                                                                         @RequestParam(value = "appName", required = false) String appName,
+                                                                         @RequestParam(value = "since", defaultValue = "0") long since) {
+        return configService.getConfigParametersDelta(userId, appName, since).map(delta -> ResponseEntity.ok().body(delta));
+    }
+
+    @GetMapping(value = "/parameters/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "subscribe to the configuration parameter changes of a user")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The stream of changed parameters with their new value")})
+    public Flux<ServerSentEvent<ParameterChangeInfos>> getParameterChanges(@RequestHeader("userId") String userId,
+                                                                           @RequestParam(value = "appName", required = false) String appName) {
+        // the heartbeat comments commit the response right away and keep idle connections open through proxies
+        Flux<ServerSentEvent<ParameterChangeInfos>> heartbeats = Flux.interval(Duration.ZERO, heartbeatInterval)
+                .map(i -> ServerSentEvent.<ParameterChangeInfos>builder().comment("heartbeat").build());
+        return Flux.merge(heartbeats, configService.getConfigParameterChanges(userId, appName)
+                .map(change -> ServerSentEvent.builder(change).event(change.getAppName()).build()));
     }
 
-    @GetMapping(value = "/applications/{appName}/parameters/{name}", produces = "application/json")
+    @GetMapping(value = "/applications/{appName}/parameters/{name}",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ConfigApi.APPLICATION_SMILE_VALUE})
     @Operation(summary = "get a configuration parameter for a given name")
     @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The configuration parameter for the application")})
     public Mono<ResponseEntity<ParameterInfos>> getParameter(@RequestHeader("userId") String userId, @PathVariable(value = "appName") String appName, @PathVariable("name") String name) {
@@ -65,11 +167,78 @@ public class ConfigController {
         return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(configService.updateConfigParameter(userId, appName, name, value));
     }
 
+    @DeleteMapping(value = "/applications/{appName}/parameters/{name}")
+    @Operation(summary = "delete a configuration parameter")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The parameter is deleted")})
+    public ResponseEntity<Mono<Void>> deleteParameter(@RequestHeader("userId") String userId, @PathVariable(value = "appName") String appName,
+                                                      @PathVariable(value = "name") String name) {
+        return ResponseEntity.ok().body(configService.deleteConfigParameter(userId, appName, name));
+    }
+
+    @DeleteMapping(value = "/parameters", produces = "application/json")
+    @Operation(summary = "delete the configuration parameters matching all the given criteria, resetting them to their default values")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The number of deleted parameters"),
+        @ApiResponse(responseCode = "400", description = "No criteria given, without all=true")})
+    public Mono<ResponseEntity<Long>> deleteParameters(@RequestParam(value = "userId", required = false) String userId,
+                                                       @RequestParam(value = "appName", required = false) String appName,
+                                                       @RequestParam(value = "name", required = false) List<String> names,
+                                                       @RequestParam(value = "namePattern", required = false) String namePattern,
+                                                       @RequestParam(value = "all", defaultValue = "false") boolean all) {
+        // the parameters of all the users are only deleted on explicit request
+        if (userId == null && appName == null && names == null && namePattern == null && !all) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return configService.deleteConfigParameters(userId, appName, names, namePattern).map(count -> ResponseEntity.ok().body(count));
+    }
+
     @PutMapping(value = "/applications/{appName}/parameters", produces = "application/json")
-    @Operation(summary = "update the  configuration parameters")
+    @Operation(summary = "update the  configuration parameters, given as JSON, CBOR or Smile")
     @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The parameters are updated")})
     public ResponseEntity<Mono<Void>> updateParameters(@RequestHeader("userId") String userId, @PathVariable(value = "appName") String appName,
                                                       @RequestBody Map<String, Object> parameters) {
         return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(configService.updateConfigParameters(userId, appName, parameters));
     }
+
+    @GetMapping(value = "/defaults/parameters", produces = "application/json")
+    @Operation(summary = "get the default parameters shared by all the applications")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The global default parameters")})
+    public ResponseEntity<Flux<ParameterInfos>> getDefaultParameters() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(configService.getDefaultParameters(null));
+    }
+
+    @GetMapping(value = "/defaults/applications/{appName}/parameters", produces = "application/json")
+    @Operation(summary = "get the default parameters of an application")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The default parameters of the application")})
+    public ResponseEntity<Flux<ParameterInfos>> getDefaultParameters(@PathVariable(value = "appName") String appName) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(configService.getDefaultParameters(appName));
+    }
+
+    @PutMapping(value = "/defaults/parameters/{name}", produces = "application/json")
+    @Operation(summary = "update a default parameter shared by all the applications")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The default parameter is updated")})
+    public ResponseEntity<Mono<Void>> updateDefaultParameter(@PathVariable(value = "name") String name, @RequestParam("value") String value) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(configService.updateDefaultParameter(null, name, value));
+    }
+
+    @PutMapping(value = "/defaults/applications/{appName}/parameters/{name}", produces = "application/json")
+    @Operation(summary = "update a default parameter of an application")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The default parameter is updated")})
+    public ResponseEntity<Mono<Void>> updateDefaultParameter(@PathVariable(value = "appName") String appName, @PathVariable(value = "name") String name,
+                                                             @RequestParam("value") String value) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(configService.updateDefaultParameter(appName, name, value));
+    }
+
+    @DeleteMapping(value = "/defaults/parameters/{name}")
+    @Operation(summary = "delete a default parameter shared by all the applications")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The default parameter is deleted")})
+    public ResponseEntity<Mono<Void>> deleteDefaultParameter(@PathVariable(value = "name") String name) {
+        return ResponseEntity.ok().body(configService.deleteDefaultParameter(null, name));
+    }
+
+    @DeleteMapping(value = "/defaults/applications/{appName}/parameters/{name}")
+    @Operation(summary = "delete a default parameter of an application")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The default parameter is deleted")})
+    public ResponseEntity<Mono<Void>> deleteDefaultParameter(@PathVariable(value = "appName") String appName, @PathVariable(value = "name") String name) {
+        return ResponseEntity.ok().body(configService.deleteDefaultParameter(appName, name));
+    }
 }
@@ -6,17 +6,46 @@
  */
 package org.gridsuite.config.server;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.gridsuite.config.server.dto.ParameterChangeInfos;
 import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.dto.ParametersDeltaInfos;
+import org.gridsuite.config.server.dto.ParametersSearchInfos;
+import org.gridsuite.config.server.dto.UserParametersInfos;
+import org.gridsuite.config.server.repository.DefaultParameterEntity;
+import org.gridsuite.config.server.repository.DefaultParametersRepository;
 import org.gridsuite.config.server.repository.ParameterEntity;
-import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.repository.ParameterTombstoneEntity;
+import org.gridsuite.config.server.repository.ParametersStore;
+import org.gridsuite.config.server.service.CachedParameters;
+import org.gridsuite.config.server.service.ConsumerService;
+import org.gridsuite.config.server.service.DefaultParametersService;
+import org.gridsuite.config.server.service.MetricsService;
+import org.gridsuite.config.server.service.NotificationOutbox;
 import org.gridsuite.config.server.service.NotificationService;
+import org.gridsuite.config.server.service.ParameterRegistry;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.gridsuite.config.server.service.ReadReplicaRouting;
+import org.gridsuite.config.server.service.WriteBehindBuffer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.gridsuite.config.server.repository.DefaultParameterEntity.GLOBAL_APP_NAME;
 
 /**
  * @author Abdelsalem Hedhili <abdelsalem.hedhili at rte-france.com>
@@ -26,52 +55,346 @@ import java.util.UUID;
 @Service
 public class ConfigService {
 
-    private final ParametersRepository configRepository;
+    // bounds the number of bind markers of the IN clause
+    private static final int USERS_SEARCH_BATCH_SIZE = 1000;
+
+    private static final int NAMES_DELETE_BATCH_SIZE = 1000;
+
+    private final ParametersStore configRepository;
+
+    private final ParametersCache parametersCache;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ObjectMapper objectMapper;
+
+    private final MetricsService metricsService;
+
+    @Value("${config.storage.delete-chunk-size:1000}")
+    private int deleteChunkSize;
+
+    @Autowired
+    private DefaultParametersRepository defaultParametersRepository;
+
+    @Autowired
+    private DefaultParametersService defaultParametersService;
 
     @Autowired
     private NotificationService notificationService;
 
     @Autowired
-    public ConfigService(ParametersRepository configRepository) {
+    private ConsumerService consumerService;
+
+    @Autowired
+    private WriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private ReadReplicaRouting readReplicaRouting;
+
+    @Autowired
+    private ParameterRegistry parameterRegistry;
+
+    @Autowired
+    public ConfigService(ParametersStore configRepository, ParametersCache parametersCache, TransactionalOperator transactionalOperator,
+                         ObjectMapper objectMapper, MetricsService metricsService) {
         this.configRepository = configRepository;
+        this.parametersCache = parametersCache;
+        this.transactionalOperator = transactionalOperator;
+        this.objectMapper = objectMapper;
+        this.metricsService = metricsService;
     }
 
     Flux<ParameterInfos> getConfigParameters(String userId) {
-        return configRepository.findAllByUserId(userId).map(ParameterEntity::toConfigInfos);
+        return getCachedConfigParameters(userId).flatMapIterable(CachedParameters::getParameters);
     }
 
     Flux<ParameterInfos> getConfigParameters(String userId, String appName) {
-        return configRepository.findAllByUserIdAndAppName(userId, appName).map(ParameterEntity::toConfigInfos);
+        return getCachedConfigParameters(userId, appName).flatMapIterable(CachedParameters::getParameters);
     }
 
     Mono<ParameterInfos> getConfigParameter(String userId, String appName, String name) {
-        return configRepository.findByUserIdAndAppNameAndName(userId, appName, name).map(ParameterEntity::toConfigInfos);
+        return metricsService.timeOperation("getConfigParameter", appName, getCachedConfigParameters(userId, appName)
+                .flatMap(parameters -> Mono.justOrEmpty(parameters.getParameters().stream().filter(p -> p.getName().equals(name)).findFirst())));
     }
 
-    Mono<Void> updateConfigParameter(String userId, String appName, String name, String value) {
-        return updateParameter(userId, appName, name, value)
-                .doOnSuccess(p -> notificationService.emitConfigParameterChanges(userId, appName, name))
-                .then();
+    Mono<CachedParameters> getCachedConfigParameters(String userId) {
+        // the parameters of all the applications can't tell the application of a buffered value, they are written first
+        return metricsService.timeOperation("getConfigParameters", null, writeBehindBuffer.flush(userId).then(parametersCache.get(userId, null,
+                () -> toCachedParameters(metricsService.timeQuery("findAllByUserId", readReplicaRouting.forReads(userId).findAllByUserId(userId)),
+                        defaultParametersService::mergeAll))));
     }
 
-    private Mono<ParameterInfos> updateParameter(String userId, String appName, String name, String value) {
-        return configRepository.findByUserIdAndAppNameAndName(userId, appName, name)
-                .switchIfEmpty(Mono.fromCallable(() -> {
-                    var uuid = UUID.randomUUID();
-                    var e = new ParameterEntity(uuid, userId, appName, name, value);
-                    e.setNew(true);
-                    return e;
-                }))
-                .flatMap(parameterEntity -> {
-                    parameterEntity.setValue(value);
-                    return configRepository.save(parameterEntity);
-                })
-                .map(ParameterEntity::toConfigInfos);
+    Mono<CachedParameters> getCachedConfigParameters(String userId, String appName) {
+        return metricsService.timeOperation("getConfigParameters", appName, parametersCache.get(userId, appName,
+                () -> toCachedParameters(metricsService.timeQuery("findAllByUserIdAndAppName", readReplicaRouting.forReads(userId).findAllByUserIdAndAppName(userId, appName)),
+                        entities -> defaultParametersService.merge(appName, entities)))
+                .map(parameters -> withPendingWrites(userId, appName, parameters)));
+    }
+
+    /**
+     * Streams the parameters of all the applications of a user as they are read from the database, without cache,
+     * followed by the defaults they don't override, for the callers reading large sets.
+     */
+    Flux<ParameterInfos> streamConfigParameters(String userId) {
+        return metricsService.timeOperation("streamConfigParameters", null, writeBehindBuffer.flush(userId)
+                .thenMany(defaultParametersService.mergeAll(metricsService.timeQuery("findAllByUserId", readReplicaRouting.forReads(userId).findAllByUserId(userId)))));
+    }
+
+    private CachedParameters withPendingWrites(String userId, String appName, CachedParameters parameters) {
+        Map<String, String> pendingWrites = writeBehindBuffer.getPendingWrites(userId, appName);
+        if (pendingWrites.isEmpty()) {
+            return parameters;
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        parameters.getParameters().forEach(parameter -> values.put(parameter.getName(), parameter.getValue()));
+        values.putAll(pendingWrites);
+        return CachedParameters.of(values.entrySet().stream().map(e -> new ParameterInfos(e.getKey(), e.getValue())).toList(), objectMapper);
+    }
+
+    private Mono<CachedParameters> toCachedParameters(Flux<ParameterEntity> entities, Function<List<ParameterEntity>, Mono<List<ParameterInfos>>> withDefaults) {
+        return entities.collectList()
+                .doOnNext(rows -> metricsService.recordRows(rows.size()))
+                .flatMap(withDefaults)
+                .map(parameters -> CachedParameters.of(parameters, objectMapper));
+    }
+
+    /**
+     * Streams the parameters of several users as they are read, grouped by user. Users without any matching
+     * parameter are omitted.
+     */
+    Flux<UserParametersInfos> searchConfigParameters(ParametersSearchInfos search) {
+        if (search.getUserIds() == null) {
+            return Flux.empty();
+        }
+        // sorted so that the groups don't span several batches
+        List<String> userIds = search.getUserIds().stream().distinct().sorted().toList();
+        return metricsService.timeOperation("searchConfigParameters", search.getAppName(), Flux.range(0, (userIds.size() + USERS_SEARCH_BATCH_SIZE - 1) / USERS_SEARCH_BATCH_SIZE)
+                .map(i -> userIds.subList(i * USERS_SEARCH_BATCH_SIZE, Math.min((i + 1) * USERS_SEARCH_BATCH_SIZE, userIds.size())))
+                .concatMap(batch -> metricsService.timeQuery("findAllByUserIds", readReplicaRouting.forReadsOfAllUsers().findAllByUserIds(batch, search.getAppName(), search.getNames())))
+                .bufferUntilChanged(ParameterEntity::getUserId)
+                .map(entities -> new UserParametersInfos(entities.get(0).getUserId(), entities.stream().map(ParameterEntity::toConfigInfos).toList())));
+    }
+
+    /**
+     * The changes of the parameters of a user, from all the instances, with the values carried by the message or
+     * read after the change.
+     *
+     * @param appName the application name, or null for the changes of all the applications
+     */
+    Flux<ParameterChangeInfos> getConfigParameterChanges(String userId, String appName) {
+        return consumerService.getParameterChanges()
+                .filter(changes -> changes.userId().equals(userId) && (appName == null || changes.appName().equals(appName)))
+                .concatMap(changes -> Flux.fromIterable(changes.names())
+                        // the values carried by the message are used as is, the deleted parameters may have a default value
+                        .concatMap(name -> changes.values() != null && changes.values().get(name) != null
+                                ? Mono.just(new ParameterChangeInfos(changes.appName(), name, changes.values().get(name)))
+                                : getConfigParameter(userId, changes.appName(), name)
+                                .map(parameter -> new ParameterChangeInfos(changes.appName(), name, parameter.getValue()))
+                                .defaultIfEmpty(new ParameterChangeInfos(changes.appName(), name, null))));
+    }
+
+    /**
+     * The parameters of a user written or deleted after a sequence number, in the order of the changes. The value of a
+     * deleted parameter is its default value, or null without default. All the stored parameters are returned from the
+     * sequence number 0.
+     * The changes of the default values are not included, they are notified separately and require a full reload.
+     * On PostgreSQL, the sequence numbers are transaction ids: only the changes of the transactions older than all the
+     * running ones are returned, so that a change committed after the read is always after the returned sequence. A
+     * long running transaction delays the changes, without losing them.
+     * The sequence number is an opaque cursor, only valid when returned by a previous delta: the change sequence
+     * numbers of the rows, such as the version of the notifications, are not comparable to it on PostgreSQL. A cursor
+     * ahead of the transactions, which can't have been returned by a delta, is answered with all the stored
+     * parameters and the reset flag.
+     * The tombstones of the deletions are purged after a retention period: when some deletions after the sequence
+     * number may have been purged, all the stored parameters are returned with the reset flag.
+     *
+     * @param appName the application name, or null for the changes of all the applications
+     */
+    Mono<ParametersDeltaInfos> getConfigParametersDelta(String userId, String appName, long since) {
+        return metricsService.timeOperation("getConfigParametersDelta", appName, readConfigParametersDelta(userId, appName, since)
+                // read after the deletions, so that a purge of some of them before their read is detected
+                .flatMap(delta -> configRepository.findDeletionsHorizon()
+                        .filter(horizon -> since > 0 && since < horizon)
+                        // from the horizon at least, the purged deletions not being returned anymore
+                        .flatMap(horizon -> readConfigParametersDelta(userId, appName, 0)
+                                .map(all -> new ParametersDeltaInfos(Math.max(all.getSequence(), horizon), all.getChanges(), true)))
+                        .defaultIfEmpty(delta)));
+    }
+
+    private Mono<ParametersDeltaInfos> readConfigParametersDelta(String userId, String appName, long since) {
+        // read before the changes, all the transactions below it being complete when they are read
+        return configRepository.findChangesWatermark()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(watermark -> {
+                    if (watermark.isPresent() && since >= watermark.get()) {
+                        // the returned cursors are all below the later watermarks
+                        return readConfigParametersDelta(userId, appName, 0, watermark.get())
+                                .map(all -> new ParametersDeltaInfos(all.getSequence(), all.getChanges(), true));
+                    }
+                    return readConfigParametersDelta(userId, appName, since, watermark.orElse(null));
+                });
+    }
+
+    private Mono<ParametersDeltaInfos> readConfigParametersDelta(String userId, String appName, long since, Long watermark) {
+        return Mono.zip(
+                metricsService.timeQuery("findAllChangedSince", configRepository.findAllChangedSince(userId, appName, since, watermark)).collectList(),
+                metricsService.timeQuery("findAllDeletedSince", configRepository.findAllDeletedSince(userId, appName, since, watermark)).collectList())
+                .flatMap(changed -> {
+                    List<ParameterEntity> entities = changed.getT1();
+                    // a parameter written again after its deletion has a greater sequence number than its tombstone
+                    Set<List<String>> written = entities.stream().map(e -> List.of(e.getAppName(), e.getName())).collect(Collectors.toSet());
+                    List<ParameterTombstoneEntity> tombstones = changed.getT2().stream()
+                            .filter(t -> !written.contains(List.of(t.getAppName(), t.getName())))
+                            .toList();
+                    // the next changes are in the transactions from the watermark, or after the returned ones on H2
+                    long sequence = watermark != null ? Math.max(since, watermark - 1)
+                            : Math.max(entities.stream().mapToLong(ParameterEntity::getChangeSeq).max().orElse(since),
+                            tombstones.stream().mapToLong(ParameterTombstoneEntity::getChangeSeq).max().orElse(since));
+                    return Flux.merge(
+                                    Flux.fromIterable(entities).map(e -> Tuples.of(e.getChangeSeq(), new ParameterChangeInfos(e.getAppName(), e.getName(), e.getValue()))),
+                                    Flux.fromIterable(tombstones).concatMap(t -> getConfigParameter(userId, t.getAppName(), t.getName())
+                                            .map(ParameterInfos::getValue)
+                                            .map(value -> new ParameterChangeInfos(t.getAppName(), t.getName(), value))
+                                            .defaultIfEmpty(new ParameterChangeInfos(t.getAppName(), t.getName(), null))
+                                            .map(change -> Tuples.of(t.getChangeSeq(), change))))
+                            .sort((c1, c2) -> Long.compare(c1.getT1(), c2.getT1()))
+                            .map(Tuple2::getT2)
+                            .collectList()
+                            .map(changes -> new ParametersDeltaInfos(sequence, changes, false));
+                });
+    }
+
+    Mono<Void> deleteConfigParameter(String userId, String appName, String name) {
+        return metricsService.timeOperation("deleteConfigParameter", appName, writeBehindBuffer.discard(userId, appName, List.of(name))
+                .then(writeAndNotify(metricsService.timeQuery("delete", configRepository.delete(userId, appName, name)), userId, appName, Collections.singletonMap(name, null))));
+    }
+
+    /**
+     * Deletes the parameters matching all the given criteria, resetting them to their default values, in chunks
+     * committed separately. The changes are notified chunk by chunk, once per user and application, so that the
+     * subscribers of the users are notified of the deletions of all the users as well. The outbox isn't used: a lost
+     * notification only delays the eviction of the cached sets on the other instances until they expire.
+     *
+     * @param userId the user id, or null for all the users
+     * @param appName the application name, or null for all the applications
+     * @param names the parameter names, or null for all the names
+     * @param namePattern a SQL LIKE pattern of the parameter names, or null for all the names
+     * @return the number of deleted parameters
+     */
+    Mono<Long> deleteConfigParameters(String userId, String appName, List<String> names, String namePattern) {
+        // the buffered values are written first, to be deleted as well
+        Flux<ParameterTombstoneEntity> deleted = writeBehindBuffer.flush()
+                .thenMany(metricsService.timeQuery("deleteAllMatching", configRepository.deleteAllMatching(userId, appName, names, namePattern, deleteChunkSize)));
+        return metricsService.timeOperation("deleteConfigParameters", appName, deleted
+                .buffer(deleteChunkSize)
+                .map(this::notifyDeletions)
+                .reduce(0L, Long::sum));
+    }
+
+    private long notifyDeletions(List<ParameterTombstoneEntity> tombstones) {
+        Map<Tuple2<String, String>, List<ParameterTombstoneEntity>> deletedByUserAndApplication = tombstones.stream()
+                .collect(Collectors.groupingBy(tombstone -> Tuples.of(tombstone.getUserId(), tombstone.getAppName()), LinkedHashMap::new, Collectors.toList()));
+        deletedByUserAndApplication.forEach((key, deletions) -> {
+            Map<String, String> values = new LinkedHashMap<>();
+            deletions.forEach(tombstone -> values.put(tombstone.getName(), null));
+            readReplicaRouting.onWrite(key.getT1());
+            parametersCache.evict(key.getT1(), key.getT2());
+            notificationService.emitConfigParameterChanges(key.getT1(), key.getT2(), values,
+                    deletions.stream().mapToLong(ParameterTombstoneEntity::getChangeSeq).max().orElseThrow());
+        });
+        return tombstones.size();
+    }
+
+    /**
+     * Deletes the parameters whose names are no longer registered, application by application, as the bulk deletions.
+     * The applications missing from the registry are left alone.
+     *
+     * @return the number of deleted parameters
+     */
+    Mono<Long> deleteUnregisteredConfigParameters() {
+        if (!parameterRegistry.isEnabled()) {
+            return Mono.just(0L);
+        }
+        return metricsService.timeQuery("findAllNames", configRepository.findAllNames())
+                .flatMapIterable(Map::entrySet)
+                .filter(names -> parameterRegistry.isRegisteredApplication(names.getKey()))
+                .concatMap(names -> Flux.fromIterable(names.getValue())
+                        .filter(name -> !parameterRegistry.isRegistered(names.getKey(), name))
+                        .buffer(NAMES_DELETE_BATCH_SIZE)
+                        .concatMap(unregistered -> deleteConfigParameters(null, names.getKey(), unregistered, null)))
+                .reduce(0L, Long::sum);
+    }
+
+    Mono<Void> updateConfigParameter(String userId, String appName, String name, String value) {
+        // validated before any write, buffered or not
+        return parameterRegistry.validate(appName, Map.of(name, value)).then(Mono.defer(() -> {
+            if (writeBehindBuffer.isBuffered(appName, name)) {
+                return metricsService.timeOperation("updateConfigParameter", appName, Mono.fromRunnable(() -> writeBehindBuffer.write(userId, appName, name, value)));
+            }
+            return metricsService.timeOperation("updateConfigParameter", appName,
+                    writeAndNotify(metricsService.timeQuery("upsert", configRepository.upsert(userId, appName, name, value)), userId, appName, Map.of(name, value)));
+        }));
     }
 
     Mono<Void> updateConfigParameters(String userId, String appName, Map<String, Object> parameters) {
-        return Flux.fromIterable(parameters.entrySet())
-                .flatMap(entry -> updateConfigParameter(userId, appName, entry.getKey(), entry.getValue().toString()))
+        if (parameters.isEmpty()) {
+            return Mono.empty();
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        parameters.forEach((name, value) -> values.put(name, value.toString()));
+        // none of the values is written when one of them is invalid
+        return parameterRegistry.validate(appName, values).then(Mono.defer(() -> {
+            metricsService.recordBulkSize(values.size());
+            return metricsService.timeOperation("updateConfigParameters", appName, writeBehindBuffer.discard(userId, appName, values.keySet())
+                    .then(writeAndNotify(metricsService.timeQuery("upsertAll", configRepository.upsertAll(userId, appName, values)), userId, appName, values)));
+        }));
+    }
+
+    /**
+     * Runs the write in a transaction, with the changes recorded in the outbox when enabled or sent after the commit.
+     *
+     * @param write the write returning its change sequence number, or empty when nothing changed
+     */
+    private Mono<Void> writeAndNotify(Mono<Long> write, String userId, String appName, Map<String, String> values) {
+        return write.flatMap(version -> notificationOutbox.record(userId, appName, values, version).thenReturn(version))
+                .as(transactionalOperator::transactional)
+                .doOnNext(version -> {
+                    // before the eviction, so that the sets loaded afterward are read from the primary
+                    readReplicaRouting.onWrite(userId);
+                    parametersCache.evict(userId, appName);
+                    if (!notificationOutbox.isEnabled()) {
+                        notificationService.emitConfigParameterChanges(userId, appName, values, version);
+                    }
+                })
                 .then();
     }
+
+    /**
+     * @param appName the application name, or null for the defaults shared by all the applications
+     */
+    Flux<ParameterInfos> getDefaultParameters(String appName) {
+        return defaultParametersRepository.findAllByAppNameOrderByName(appName != null ? appName : GLOBAL_APP_NAME)
+                .map(DefaultParameterEntity::toConfigInfos);
+    }
+
+    Mono<Void> updateDefaultParameter(String appName, String name, String value) {
+        return defaultParametersRepository.upsert(appName != null ? appName : GLOBAL_APP_NAME, name, value)
+                .then(Mono.fromRunnable(() -> onDefaultParameterChanged(appName, name)));
+    }
+
+    Mono<Void> deleteDefaultParameter(String appName, String name) {
+        return defaultParametersRepository.deleteByAppNameAndName(appName != null ? appName : GLOBAL_APP_NAME, name)
+                .filter(deleted -> deleted > 0)
+                .flatMap(deleted -> Mono.fromRunnable(() -> onDefaultParameterChanged(appName, name)));
+    }
+
+    private void onDefaultParameterChanged(String appName, String name) {
+        defaultParametersService.reload();
+        parametersCache.evictAll();
+        notificationService.emitDefaultParameterChanges(appName, name);
+    }
 }
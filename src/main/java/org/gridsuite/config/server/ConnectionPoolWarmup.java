@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Opens the initial connections of the pool during the startup, so that the first requests after a deployment don't
+ * pay for the connection establishment. Application runners complete before the readiness state accepts traffic.
+ */
+@Component
+public class ConnectionPoolWarmup implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPoolWarmup.class);
+
+    private final ConnectionFactory connectionFactory;
+
+    private final Duration timeout;
+
+    public ConnectionPoolWarmup(ConnectionFactory connectionFactory,
+                                @Value("${config.r2dbc.warmup-timeout:PT30S}") Duration timeout) {
+        this.connectionFactory = connectionFactory;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (connectionFactory instanceof ConnectionPool pool) {
+            Integer connections = pool.warmup().block(timeout);
+            LOGGER.info("Connection pool warmed up with {} new connections", connections);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.repository.ParameterDocumentsRepository;
+import org.gridsuite.config.server.repository.ParameterEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Copies the parameters of the parameters table into the documents of the parameters_documents table during the
+ * startup, when switching to the document storage. Only the parameters missing from the documents are added, so that
+ * the parameters written in document mode by the other instances during the migration are kept, and the migration
+ * can be run again after a failure. The rows without user or application, which no document can hold, are skipped
+ * and logged. Application runners complete before the readiness state accepts traffic. The parameters table is kept, to be able to switch back to the per parameter storage.
+ */
+@Component
+@ConditionalOnProperty(name = "config.storage.mode", havingValue = "document")
+public class ParameterDocumentsMigration implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParameterDocumentsMigration.class);
+
+    private record DocumentKey(String userId, String appName) {
+    }
+
+    private final boolean enabled;
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    private final ParameterDocumentsRepository documentsRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    public ParameterDocumentsMigration(@Value("${config.storage.migration.enabled:false}") boolean enabled,
+                                       R2dbcEntityTemplate entityTemplate, ParameterDocumentsRepository documentsRepository,
+                                       TransactionalOperator transactionalOperator) {
+        this.enabled = enabled;
+        this.entityTemplate = entityTemplate;
+        this.documentsRepository = documentsRepository;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        // sorted by the unique constraint, so that the parameters of a document are read together
+        Long documents = entityTemplate.select(ParameterEntity.class)
+                .matching(Query.empty().sort(Sort.by("userId", "appName")))
+                .all()
+                .filter(entity -> {
+                    if (entity.getUserId() == null || entity.getAppName() == null) {
+                        LOGGER.warn("Parameter {} of user {} and application {} not copied to the parameter documents",
+                                entity.getName(), entity.getUserId(), entity.getAppName());
+                        return false;
+                    }
+                    return true;
+                })
+                .bufferUntilChanged(entity -> new DocumentKey(entity.getUserId(), entity.getAppName()))
+                .concatMap(entities -> {
+                    Map<String, String> parameters = new LinkedHashMap<>();
+                    entities.forEach(entity -> parameters.put(entity.getName(), entity.getValue()));
+                    return documentsRepository.insertMissing(entities.get(0).getUserId(), entities.get(0).getAppName(), parameters)
+                            .as(transactionalOperator::transactional)
+                            .thenReturn(entities.size());
+                }, 1)
+                .count()
+                .block();
+        LOGGER.info("Parameters of {} users and applications copied to the parameter documents", documents);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.service.NotificationService;
+import org.gridsuite.config.server.service.ParameterRegistry;
+import org.gridsuite.config.server.service.ParameterRegistryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Periodically removes the parameters whose names are no longer registered, when the registry is enabled. The
+ * parameters are deleted in chunks committed separately, with their deletions notified as the bulk deletions. Every
+ * instance runs the compaction, the later runs finding nothing to delete.
+ */
+@Component
+public class ParameterNamesCompaction implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParameterNamesCompaction.class);
+
+    private final ConfigService configService;
+
+    private final ParameterRegistry parameterRegistry;
+
+    private final Duration interval;
+
+    private Disposable periodicCompaction;
+
+    private volatile boolean running;
+
+    public ParameterNamesCompaction(ConfigService configService, ParameterRegistry parameterRegistry, ParameterRegistryProperties properties) {
+        this.configService = configService;
+        this.parameterRegistry = parameterRegistry;
+        this.interval = properties.compactionInterval();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (parameterRegistry.isEnabled()) {
+            // not on startup, so as not to slow down the restarts of all the instances
+            periodicCompaction = Flux.interval(interval, interval)
+                    .onBackpressureDrop()
+                    .concatMap(i -> compact().onErrorResume(e -> {
+                        LOGGER.error("Failed to remove the unregistered parameters", e);
+                        return Mono.empty();
+                    }), 1)
+                    .subscribe();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (periodicCompaction != null) {
+            periodicCompaction.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped before the buffered values are written and the notifications are stopped, the deletions being notified
+    @Override
+    public int getPhase() {
+        return NotificationService.NOTIFICATIONS_PHASE + 3;
+    }
+
+    /**
+     * @return the number of removed parameters
+     */
+    public Mono<Long> compact() {
+        return configService.deleteUnregisteredConfigParameters()
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        LOGGER.info("{} unregistered parameters removed", count);
+                    }
+                });
+    }
+}
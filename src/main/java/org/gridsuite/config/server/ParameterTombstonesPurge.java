@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.repository.ParametersStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Periodically purges the tombstones of the deletions older than the retention period, which are only kept for the
+ * deltas. The tombstones are purged in chunks committed separately, the deltas from before the purged deletions then
+ * returning all the parameters. Every instance runs the purge, the later runs finding nothing to purge. The purge runs
+ * between the start of the application context and the closing of the connection pool.
+ */
+@Component
+public class ParameterTombstonesPurge implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParameterTombstonesPurge.class);
+
+    private final ParametersStore configRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Duration retention;
+
+    private final Duration interval;
+
+    private final int chunkSize;
+
+    private Disposable periodicPurge;
+
+    private volatile boolean running;
+
+    public ParameterTombstonesPurge(ParametersStore configRepository, TransactionalOperator transactionalOperator,
+                                    @Value("${config.storage.tombstones.retention:P30D}") Duration retention,
+                                    @Value("${config.storage.tombstones.purge-interval:PT1H}") Duration interval,
+                                    @Value("${config.storage.delete-chunk-size:1000}") int chunkSize) {
+        this.configRepository = configRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.retention = retention;
+        this.interval = interval;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        periodicPurge = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(i -> purge().onErrorResume(e -> {
+                    LOGGER.error("Failed to purge the parameter tombstones", e);
+                    return Mono.empty();
+                }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (periodicPurge != null) {
+            periodicPurge.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return the number of purged tombstones
+     */
+    public Mono<Long> purge() {
+        return Mono.defer(() -> purge(OffsetDateTime.now().minus(retention)));
+    }
+
+    /**
+     * Purges the tombstones of the deletions recorded before a date.
+     *
+     * @return the number of purged tombstones
+     */
+    public Mono<Long> purge(OffsetDateTime before) {
+        // a chunk per transaction, until a partial chunk
+        return configRepository.purgeDeletions(before, chunkSize)
+                .as(transactionalOperator::transactional)
+                .repeat()
+                .takeUntil(count -> count < chunkSize)
+                .reduce(0L, Long::sum)
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        LOGGER.info("{} parameter tombstones purged", count);
+                    }
+                });
+    }
+}
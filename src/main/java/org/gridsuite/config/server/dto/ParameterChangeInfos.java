@@ -0,0 +1,24 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.dto;
+
+import lombok.*;
+
+/**
+ * A parameter change pushed to the subscribers, the value is null when the parameter doesn't exist anymore.
+ */
+@AllArgsConstructor
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ParameterChangeInfos {
+    String appName;
+    String name;
+    String value;
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * The parameters of a user changed after a change sequence number, and the sequence number to ask the next changes from.
+ * When the deletions after the sequence number have been purged, reset is true and the changes are all the stored
+ * parameters, the parameters missing from them having been deleted.
+ */
+@AllArgsConstructor
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ParametersDeltaInfos {
+    long sequence;
+    List<ParameterChangeInfos> changes;
+    boolean reset;
+}
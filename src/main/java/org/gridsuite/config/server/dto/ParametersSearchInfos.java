@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * The parameters to look up for several users, appName and names are optional filters.
+ */
+@AllArgsConstructor
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ParametersSearchInfos {
+    List<String> userIds;
+    String appName;
+    List<String> names;
+}
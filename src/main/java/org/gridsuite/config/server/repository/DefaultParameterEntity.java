@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * The default value of a parameter for all the users, of an application or of all the applications.
+ */
+@Getter
+@Setter
+@Table("default_parameters")
+public class DefaultParameterEntity implements Persistable<UUID> {
+
+    /**
+     * The application name of the defaults shared by all the applications.
+     */
+    public static final String GLOBAL_APP_NAME = "*";
+
+    public DefaultParameterEntity(UUID id, String appName, String name, String value) {
+        this.id = id;
+        this.appName = appName;
+        this.name = name;
+        this.value = value;
+    }
+
+    @Id
+    private UUID id;
+
+    private String appName;
+
+    private String name;
+
+    @Column("value_")
+    private String value;
+
+    public ParameterInfos toConfigInfos() {
+        return new ParameterInfos(this.getName(), this.getValue());
+    }
+
+    @Transient
+    private boolean isNew = false;
+}
@@ -0,0 +1,22 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Repository
+public interface DefaultParametersRepository extends ReactiveCrudRepository<DefaultParameterEntity, UUID>, DefaultParametersRepositoryCustom {
+
+    Flux<DefaultParameterEntity> findAllByAppNameOrderByName(String appName);
+
+    Mono<Integer> deleteByAppNameAndName(String appName, String name);
+}
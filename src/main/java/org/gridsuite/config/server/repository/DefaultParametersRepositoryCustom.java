@@ -0,0 +1,21 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Queries which can't be derived by spring-data-r2dbc because they depend on the database vendor.
+ */
+public interface DefaultParametersRepositoryCustom {
+
+    /**
+     * Inserts or updates a default value in a single atomic statement, the concurrent writes of a new default never
+     * failing on the unique constraint on (app_name, name).
+     */
+    Mono<Void> upsert(String appName, String name, String value);
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public class DefaultParametersRepositoryCustomImpl implements DefaultParametersRepositoryCustom {
+
+    // relies on the unique constraint on (app_name, name)
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO default_parameters (id, app_name, name, value_) VALUES (:id, :appName, :name, :value)
+            ON CONFLICT (app_name, name) DO UPDATE SET value_ = EXCLUDED.value_
+            """;
+
+    // H2 doesn't support ON CONFLICT ... DO UPDATE, used for the tests
+    private static final String H2_UPSERT = """
+            MERGE INTO default_parameters d
+            USING (VALUES (CAST(:id AS UUID), :appName, :name, CAST(:value AS VARCHAR(4000)))) AS s(id, app_name, name, value_)
+            ON d.app_name = s.app_name AND d.name = s.name
+            WHEN MATCHED THEN UPDATE SET value_ = s.value_
+            WHEN NOT MATCHED THEN INSERT (id, app_name, name, value_) VALUES (s.id, s.app_name, s.name, s.value_)
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    private final boolean h2;
+
+    public DefaultParametersRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.h2 = DialectResolver.getDialect(databaseClient.getConnectionFactory()) instanceof H2Dialect;
+    }
+
+    @Override
+    public Mono<Void> upsert(String appName, String name, String value) {
+        return databaseClient.sql(h2 ? H2_UPSERT : POSTGRES_UPSERT)
+                .bind("id", UUID.randomUUID())
+                .bind("appName", appName)
+                .bind("name", name)
+                .bind("value", Parameter.fromOrEmpty(value, String.class))
+                .then();
+    }
+}
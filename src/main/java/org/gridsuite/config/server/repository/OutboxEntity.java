@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Parameter changes of a user and an application written in the transaction of the parameters, sent later on
+ * config.update.
+ */
+@Getter
+@Setter
+@Table("parameters_outbox")
+public class OutboxEntity {
+
+    public OutboxEntity(Long id, String userId, String appName, String values, Long version) {
+        this.id = id;
+        this.userId = userId;
+        this.appName = appName;
+        this.values = values;
+        this.version = version;
+    }
+
+    // generated by the database, in the order of the writes
+    @Id
+    private Long id;
+
+    private String userId;
+
+    private String appName;
+
+    // JSON object of the new values by name
+    @Column("values_")
+    private String values;
+
+    private Long version;
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+public interface OutboxRepositoryCustom {
+
+    /**
+     * Takes the lock of the outbox relay until the end of the transaction, so that a single instance claims the changes.
+     *
+     * @return whether the lock was taken, false when held by another instance
+     */
+    Mono<Boolean> tryLockRelay();
+
+    /**
+     * Claims the first rows of the outbox until a date, unless rows are still claimed by another relay. To be run in a
+     * transaction holding the lock of the relay.
+     *
+     * @return the claimed rows, in the order of the writes
+     */
+    Flux<OutboxEntity> claimBatch(int batchSize, OffsetDateTime now, OffsetDateTime claimedUntil);
+
+    /**
+     * Releases the claim of rows not sent, the next relay sending them.
+     */
+    Mono<Void> releaseClaims(Collection<Long> ids);
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+
+public class OutboxRepositoryCustomImpl implements OutboxRepositoryCustom {
+
+    // arbitrary key of the advisory lock, shared by all the instances
+    private static final long RELAY_LOCK_KEY = 0x636f6e666967L;
+
+    // nothing is claimed while the rows claimed by another relay are being sent, so that the changes are sent in order
+    private static final String CLAIM_BATCH = """
+            UPDATE parameters_outbox SET claimed_until = :claimedUntil
+            WHERE id IN (SELECT id FROM parameters_outbox ORDER BY id LIMIT :batchSize)
+                AND NOT EXISTS (SELECT 1 FROM parameters_outbox WHERE claimed_until > :now)
+            """;
+
+    private static final String POSTGRES_CLAIM_BATCH = CLAIM_BATCH + "RETURNING id, user_id, app_name, values_, version";
+
+    private static final String H2_CLAIM_BATCH = "SELECT id, user_id, app_name, values_, version FROM FINAL TABLE (" + CLAIM_BATCH + ")";
+
+    private static final String RELEASE_CLAIMS = "UPDATE parameters_outbox SET claimed_until = NULL WHERE id IN (:ids)";
+
+    private final DatabaseClient databaseClient;
+
+    private final boolean h2;
+
+    public OutboxRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.h2 = DialectResolver.getDialect(databaseClient.getConnectionFactory()) instanceof H2Dialect;
+    }
+
+    @Override
+    public Mono<Boolean> tryLockRelay() {
+        if (h2) {
+            // embedded database of a single instance, used for the tests
+            return Mono.just(true);
+        }
+        return databaseClient.sql("SELECT pg_try_advisory_xact_lock(:key) AS locked")
+                .bind("key", RELAY_LOCK_KEY)
+                .map(row -> row.get("locked", Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Flux<OutboxEntity> claimBatch(int batchSize, OffsetDateTime now, OffsetDateTime claimedUntil) {
+        return databaseClient.sql(h2 ? H2_CLAIM_BATCH : POSTGRES_CLAIM_BATCH)
+                .bind("claimedUntil", claimedUntil)
+                .bind("batchSize", batchSize)
+                .bind("now", now)
+                .map(row -> new OutboxEntity(row.get("id", Long.class), row.get("user_id", String.class), row.get("app_name", String.class),
+                        row.get("values_", String.class), row.get("version", Long.class)))
+                .all()
+                .sort(Comparator.comparing(OutboxEntity::getId));
+    }
+
+    @Override
+    public Mono<Void> releaseClaims(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(RELEASE_CLAIMS)
+                .bind("ids", ids)
+                .then();
+    }
+}
@@ -0,0 +1,441 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Stores the parameters of a user and an application as a single JSON document in the parameters_documents table,
+ * keyed by (user_id, app_name): the parameters of an application are read with a single row, and the written keys
+ * are merged into the stored document in place. The whole document takes a new change sequence number on each write,
+ * so the changes since a sequence number are all the parameters of the changed documents. The deletions are recorded
+ * as tombstones like with the per parameter storage.
+ * The large values are not compressed by the application, PostgreSQL compresses the large jsonb documents itself.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "config.storage.mode", havingValue = "document")
+public class ParameterDocumentsRepository implements ParametersStore {
+
+    private static final TypeReference<LinkedHashMap<String, String>> DOCUMENT_TYPE = new TypeReference<>() { };
+
+    private record Document(String userId, String appName, Map<String, String> parameters) {
+    }
+
+    private static final int NAMES_CHUNK_SIZE = 1000;
+
+    private static final String SELECT = "SELECT user_id, app_name, parameters, change_seq FROM parameters_documents WHERE user_id = :userId";
+
+    // the keys of the written document replace the ones of the stored document, the other keys are kept
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO parameters_documents (user_id, app_name, parameters, change_seq, change_txid)
+            VALUES (:userId, :appName, CAST(:parameters AS jsonb), nextval('parameters_change_seq'), CAST(CAST(pg_current_xact_id() AS text) AS BIGINT))
+            ON CONFLICT (user_id, app_name)
+            DO UPDATE SET parameters = parameters_documents.parameters || EXCLUDED.parameters, change_seq = EXCLUDED.change_seq,
+                change_txid = EXCLUDED.change_txid
+            RETURNING change_seq
+            """;
+
+    private static final String POSTGRES_DELETE_KEY = """
+            UPDATE parameters_documents SET parameters = parameters - CAST(:name AS text), change_seq = nextval('parameters_change_seq'),
+                change_txid = CAST(CAST(pg_current_xact_id() AS text) AS BIGINT)
+            WHERE user_id = :userId AND app_name = :appName AND jsonb_exists(parameters, :name)
+            """;
+
+    // the document is locked to read the keys it had before the update, the keys actually removed being returned
+    private static final String POSTGRES_DELETE_KEYS = """
+            WITH old AS (
+                SELECT user_id, app_name, parameters FROM parameters_documents WHERE user_id = :userId AND app_name = :appName FOR UPDATE
+            )
+            UPDATE parameters_documents d SET parameters = d.parameters - CAST(:names AS text[]), change_seq = nextval('parameters_change_seq'),
+                change_txid = CAST(CAST(pg_current_xact_id() AS text) AS BIGINT)
+            FROM old
+            WHERE d.user_id = old.user_id AND d.app_name = old.app_name AND jsonb_exists_any(d.parameters, CAST(:names AS text[]))
+            RETURNING ARRAY(SELECT jsonb_object_keys(old.parameters) EXCEPT SELECT jsonb_object_keys(d.parameters)) AS names
+            """;
+
+    // the next documents after the last one of the previous chunk, in the order of the primary key
+    private static final String SELECT_CHUNK = "SELECT user_id, app_name, parameters FROM parameters_documents WHERE %s "
+            + "ORDER BY user_id, app_name LIMIT :chunkSize";
+
+    private static final String POSTGRES_SELECT_NAMES = "SELECT DISTINCT app_name, jsonb_object_keys(parameters) AS name FROM parameters_documents";
+
+    // the keys of the stored document replace the ones of the written document, only the missing keys are added
+    private static final String POSTGRES_INSERT_MISSING = """
+            INSERT INTO parameters_documents (user_id, app_name, parameters, change_seq, change_txid)
+            VALUES (:userId, :appName, CAST(:parameters AS jsonb), nextval('parameters_change_seq'), CAST(CAST(pg_current_xact_id() AS text) AS BIGINT))
+            ON CONFLICT (user_id, app_name)
+            DO UPDATE SET parameters = EXCLUDED.parameters || parameters_documents.parameters, change_seq = EXCLUDED.change_seq,
+                change_txid = EXCLUDED.change_txid
+            WHERE NOT jsonb_exists_all(parameters_documents.parameters, ARRAY(SELECT jsonb_object_keys(EXCLUDED.parameters)))
+            """;
+
+    // H2 has no JSON operators, used for the tests: the documents are merged by the application, the row being locked
+    // until the end of the transaction
+    private static final String H2_SELECT_FOR_UPDATE = "SELECT parameters FROM parameters_documents WHERE user_id = :userId AND app_name = :appName FOR UPDATE";
+
+    private static final String H2_UPSERT = """
+            MERGE INTO parameters_documents d
+            USING (VALUES (:userId, :appName, :parameters)) AS s(user_id, app_name, parameters)
+            ON d.user_id = s.user_id AND d.app_name = s.app_name
+            WHEN MATCHED THEN UPDATE SET parameters = s.parameters, change_seq = NEXT VALUE FOR parameters_change_seq
+            WHEN NOT MATCHED THEN INSERT (user_id, app_name, parameters, change_seq)
+                VALUES (s.user_id, s.app_name, s.parameters, NEXT VALUE FOR parameters_change_seq)
+            """;
+
+    private static final String H2_CHANGE_SEQ = "SELECT change_seq FROM parameters_documents WHERE user_id = :userId AND app_name = :appName";
+
+    private final DatabaseClient databaseClient;
+
+    private final ParametersRepository parametersRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final boolean h2;
+
+    public ParameterDocumentsRepository(DatabaseClient databaseClient, ParametersRepository parametersRepository, ObjectMapper objectMapper,
+                                        TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.parametersRepository = parametersRepository;
+        this.objectMapper = objectMapper;
+        this.transactionalOperator = transactionalOperator;
+        this.h2 = DialectResolver.getDialect(databaseClient.getConnectionFactory()) instanceof H2Dialect;
+    }
+
+    @Override
+    public Flux<ParameterEntity> findAllByUserId(String userId) {
+        return select(SELECT, userId, null, Map.of());
+    }
+
+    @Override
+    public Flux<ParameterEntity> findAllByUserIdAndAppName(String userId, String appName) {
+        return select(SELECT + " AND app_name = :appName", userId, appName, Map.of());
+    }
+
+    @Override
+    public Mono<Long> upsert(String userId, String appName, String name, String value) {
+        return upsertAll(userId, appName, Map.of(name, value));
+    }
+
+    @Override
+    public Mono<Long> upsertAll(String userId, String appName, Map<String, String> parameters) {
+        if (!h2) {
+            return databaseClient.sql(POSTGRES_UPSERT)
+                    .bind("userId", userId)
+                    .bind("appName", appName)
+                    .bind("parameters", toJson(parameters))
+                    .map(row -> row.get("change_seq", Long.class))
+                    .one();
+        }
+        return lockDocument(userId, appName)
+                .switchIfEmpty(Mono.fromSupplier(LinkedHashMap::new))
+                .flatMap(document -> {
+                    document.putAll(parameters);
+                    return h2Write(userId, appName, document);
+                });
+    }
+
+    @Override
+    public Flux<ParameterEntity> findAllByUserIds(Collection<String> userIds, String appName, Collection<String> names) {
+        if (userIds.isEmpty() || names != null && names.isEmpty()) {
+            return Flux.empty();
+        }
+        String sql = "SELECT user_id, app_name, parameters, change_seq FROM parameters_documents WHERE user_id IN (:userIds)"
+                + (appName != null ? " AND app_name = :appName" : "") + " ORDER BY user_id";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql).bind("userIds", userIds);
+        if (appName != null) {
+            spec = spec.bind("appName", appName);
+        }
+        return spec.map(row -> toEntities(row.get("user_id", String.class), row.get("app_name", String.class),
+                        row.get("parameters", String.class), row.get("change_seq", Long.class)))
+                .all()
+                .flatMapIterable(Function.identity())
+                .filter(entity -> names == null || names.contains(entity.getName()));
+    }
+
+    @Override
+    public Mono<Long> delete(String userId, String appName, String name) {
+        Mono<Boolean> deleted;
+        if (!h2) {
+            deleted = databaseClient.sql(POSTGRES_DELETE_KEY)
+                    .bind("userId", userId)
+                    .bind("appName", appName)
+                    .bind("name", name)
+                    .fetch().rowsUpdated()
+                    .map(updated -> updated > 0);
+        } else {
+            deleted = lockDocument(userId, appName)
+                    .filter(document -> document.containsKey(name))
+                    .flatMap(document -> {
+                        document.remove(name);
+                        return h2Write(userId, appName, document);
+                    })
+                    .hasElement();
+        }
+        return deleted.filter(Boolean::booleanValue).flatMap(d -> recordDeletion(userId, appName, name));
+    }
+
+    /**
+     * The documents are read in chunks, and each document having matching parameters is updated once. The names are
+     * matched by the application, the documents of the given user and application being all read. The keys removed
+     * from a document are recorded as tombstones in the transaction of its update, only the keys still in the document
+     * when updated being recorded.
+     */
+    @Override
+    public Flux<ParameterTombstoneEntity> deleteAllMatching(String userId, String appName, Collection<String> names, String namePattern, int chunkSize) {
+        if (names != null && names.isEmpty()) {
+            return Flux.empty();
+        }
+        Pattern pattern = namePattern != null ? likePattern(namePattern) : null;
+        Predicate<String> matching = name -> (names == null || names.contains(name)) && (pattern == null || pattern.matcher(name).matches());
+        return selectChunk(userId, appName, null, chunkSize)
+                .expand(chunk -> chunk.size() < chunkSize ? Mono.empty() : selectChunk(userId, appName, chunk.get(chunk.size() - 1), chunkSize))
+                .concatMapIterable(Function.identity())
+                .concatMap(document -> deleteKeys(document.userId(), document.appName(),
+                        document.parameters().keySet().stream().filter(matching).toList()));
+    }
+
+    private Mono<List<Document>> selectChunk(String userId, String appName, Document last, int chunkSize) {
+        List<String> criteria = new ArrayList<>();
+        if (userId != null) {
+            criteria.add("user_id = :userId");
+        }
+        if (appName != null) {
+            criteria.add("app_name = :appName");
+        }
+        if (last != null) {
+            criteria.add("(user_id, app_name) > (:lastUserId, :lastAppName)");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(String.format(SELECT_CHUNK, criteria.isEmpty() ? "1 = 1" : String.join(" AND ", criteria)))
+                .bind("chunkSize", chunkSize);
+        if (userId != null) {
+            spec = spec.bind("userId", userId);
+        }
+        if (appName != null) {
+            spec = spec.bind("appName", appName);
+        }
+        if (last != null) {
+            spec = spec.bind("lastUserId", last.userId()).bind("lastAppName", last.appName());
+        }
+        return spec.map(row -> new Document(row.get("user_id", String.class), row.get("app_name", String.class), fromJson(row.get("parameters", String.class))))
+                .all()
+                .collectList();
+    }
+
+    private Flux<ParameterTombstoneEntity> deleteKeys(String userId, String appName, List<String> names) {
+        if (names.isEmpty()) {
+            return Flux.empty();
+        }
+        Mono<List<String>> removed;
+        if (!h2) {
+            removed = databaseClient.sql(POSTGRES_DELETE_KEYS)
+                    .bind("userId", userId)
+                    .bind("appName", appName)
+                    .bind("names", names.toArray(String[]::new))
+                    .map(row -> Arrays.asList(row.get("names", String[].class)))
+                    .one();
+        } else {
+            removed = lockDocument(userId, appName)
+                    .flatMap(document -> {
+                        List<String> present = names.stream().filter(document::containsKey).toList();
+                        if (present.isEmpty()) {
+                            return Mono.empty();
+                        }
+                        present.forEach(document::remove);
+                        return h2Write(userId, appName, document).thenReturn(present);
+                    });
+        }
+        return removed.flatMapMany(Flux::fromIterable)
+                .concatMap(name -> recordDeletion(userId, appName, name)
+                        .map(changeSeq -> new ParameterTombstoneEntity(null, userId, appName, name, changeSeq)))
+                .as(transactionalOperator::transactional);
+    }
+
+    // the escape character isn't supported
+    private static Pattern likePattern(String namePattern) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : namePattern.toCharArray()) {
+            switch (c) {
+                case '%' -> regex.append(".*");
+                case '_' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * On H2, the documents are read in chunks and their keys collected by the application.
+     */
+    @Override
+    public Mono<Map<String, Collection<String>>> findAllNames() {
+        if (!h2) {
+            return databaseClient.sql(POSTGRES_SELECT_NAMES)
+                    .map(row -> List.of(row.get("app_name", String.class), row.get("name", String.class)))
+                    .all()
+                    .collectMultimap(names -> names.get(0), names -> names.get(1));
+        }
+        return selectChunk(null, null, null, NAMES_CHUNK_SIZE)
+                .expand(chunk -> chunk.size() < NAMES_CHUNK_SIZE ? Mono.empty() : selectChunk(null, null, chunk.get(chunk.size() - 1), NAMES_CHUNK_SIZE))
+                .concatMapIterable(Function.identity())
+                .<Map<String, Collection<String>>>collect(LinkedHashMap::new, (names, document) -> names.computeIfAbsent(document.appName(), appName -> new LinkedHashSet<>())
+                        .addAll(document.parameters().keySet()));
+    }
+
+    @Override
+    public Mono<Long> recordDeletion(String userId, String appName, String name) {
+        return parametersRepository.recordDeletion(userId, appName, name);
+    }
+
+    @Override
+    public Mono<Long> purgeDeletions(OffsetDateTime before, int chunkSize) {
+        return parametersRepository.purgeDeletions(before, chunkSize);
+    }
+
+    @Override
+    public Mono<Long> findDeletionsHorizon() {
+        return parametersRepository.findDeletionsHorizon();
+    }
+
+    @Override
+    public Mono<Long> findChangesWatermark() {
+        return parametersRepository.findChangesWatermark();
+    }
+
+    @Override
+    public Flux<ParameterEntity> findAllChangedSince(String userId, String appName, long since, Long watermark) {
+        // served by the (user_id, change_seq) and (user_id, change_txid) indexes, the documents written before the
+        // transaction ids were recorded have a change_txid of 0
+        if (watermark == null) {
+            return select(SELECT + " AND change_seq > :since" + appNameFilter(appName) + " ORDER BY change_seq", userId, appName, Map.<String, Object>of("since", since));
+        }
+        if (since == 0) {
+            return select(SELECT + " AND change_txid < :watermark" + appNameFilter(appName) + " ORDER BY change_seq", userId, appName, Map.<String, Object>of("watermark", watermark));
+        }
+        String sql = SELECT + " AND change_txid > :since AND change_txid < :watermark" + appNameFilter(appName) + " ORDER BY change_seq";
+        return select(sql, userId, appName, Map.<String, Object>of("since", since, "watermark", watermark));
+    }
+
+    private static String appNameFilter(String appName) {
+        return appName != null ? " AND app_name = :appName" : "";
+    }
+
+    @Override
+    public Flux<ParameterTombstoneEntity> findAllDeletedSince(String userId, String appName, long since, Long watermark) {
+        return parametersRepository.findAllDeletedSince(userId, appName, since, watermark);
+    }
+
+    /**
+     * Adds the parameters missing from the document of a user and an application, the parameters already in the
+     * document being kept. The document takes a new change sequence number only when parameters are added. To be run
+     * in a transaction.
+     */
+    public Mono<Void> insertMissing(String userId, String appName, Map<String, String> parameters) {
+        if (!h2) {
+            return databaseClient.sql(POSTGRES_INSERT_MISSING)
+                    .bind("userId", userId)
+                    .bind("appName", appName)
+                    .bind("parameters", toJson(parameters))
+                    .then();
+        }
+        return lockDocument(userId, appName)
+                .switchIfEmpty(Mono.fromSupplier(LinkedHashMap::new))
+                .flatMap(document -> {
+                    Map<String, String> merged = new LinkedHashMap<>(parameters);
+                    merged.putAll(document);
+                    return merged.equals(document) ? Mono.empty() : h2Write(userId, appName, merged);
+                })
+                .then();
+    }
+
+    private Flux<ParameterEntity> select(String sql, String userId, String appName, Map<String, Object> bindings) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql).bind("userId", userId);
+        if (appName != null) {
+            spec = spec.bind("appName", appName);
+        }
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map(row -> toEntities(row.get("user_id", String.class), row.get("app_name", String.class),
+                        row.get("parameters", String.class), row.get("change_seq", Long.class)))
+                .all()
+                .flatMapIterable(Function.identity());
+    }
+
+    private Mono<LinkedHashMap<String, String>> lockDocument(String userId, String appName) {
+        return databaseClient.sql(H2_SELECT_FOR_UPDATE)
+                .bind("userId", userId)
+                .bind("appName", appName)
+                .map(row -> row.get("parameters", String.class))
+                .one()
+                .map(this::fromJson);
+    }
+
+    private Mono<Long> h2Write(String userId, String appName, Map<String, String> document) {
+        return databaseClient.sql(H2_UPSERT)
+                .bind("userId", userId)
+                .bind("appName", appName)
+                .bind("parameters", toJson(document))
+                .then()
+                .then(databaseClient.sql(H2_CHANGE_SEQ)
+                        .bind("userId", userId)
+                        .bind("appName", appName)
+                        .map(row -> row.get("change_seq", Long.class))
+                        .one());
+    }
+
+    private List<ParameterEntity> toEntities(String userId, String appName, String document, Long changeSeq) {
+        return fromJson(document).entrySet().stream().map(e -> {
+            // no id, the parameters of a document aren't rows
+            ParameterEntity entity = new ParameterEntity(null, userId, appName, e.getKey(), e.getValue());
+            entity.setChangeSeq(changeSeq);
+            return entity;
+        }).toList();
+    }
+
+    private String toJson(Map<String, String> parameters) {
+        try {
+            return objectMapper.writeValueAsString(parameters);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private LinkedHashMap<String, String> fromJson(String document) {
+        try {
+            return objectMapper.readValue(document, DOCUMENT_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
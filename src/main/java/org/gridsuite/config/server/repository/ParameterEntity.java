@@ -6,10 +6,12 @@
  */
 package org.gridsuite.config.server.repository;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.gridsuite.config.server.dto.ParameterInfos;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.annotation.Transient;
 import org.springframework.data.domain.Persistable;
 import org.springframework.data.relational.core.mapping.Column;
@@ -49,6 +51,28 @@ public class ParameterEntity implements Persistable<UUID> {
     @Column("value_")
     private String value;
 
+    // the large values are stored compressed, and decompressed on read
+    @Column("value_compressed")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private byte[] compressedValue;
+
+    // set by the database on each write of the row
+    @ReadOnlyProperty
+    private Long changeSeq;
+
+    public String getValue() {
+        if (value != null || compressedValue == null) {
+            return value;
+        }
+        return ParameterValues.decompress(compressedValue);
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+        this.compressedValue = null;
+    }
+
     public ParameterInfos toConfigInfos() {
         return new ParameterInfos(this.getName(), this.getValue());
     }
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * A deleted parameter, with the change sequence number of its deletion. Only written by
+ * {@link ParametersRepositoryCustom#delete}, {@link ParametersRepositoryCustom#deleteAllMatching} and
+ * {@link ParametersRepositoryCustom#recordDeletion}.
+ */
+@AllArgsConstructor
+@Getter
+@Table("parameters_tombstones")
+public class ParameterTombstoneEntity {
+
+    @Id
+    private UUID id;
+
+    private String userId;
+
+    private String appName;
+
+    private String name;
+
+    private Long changeSeq;
+}
@@ -17,10 +17,12 @@ import java.util.UUID;
  */
 
 @Repository
-public interface ParametersRepository extends ReactiveCrudRepository<ParameterEntity, UUID> {
+public interface ParametersRepository extends ReactiveCrudRepository<ParameterEntity, UUID>, ParametersRepositoryCustom, ParametersStore {
 
+    @Override
     Flux<ParameterEntity> findAllByUserId(String userId);
 
+    @Override
     Flux<ParameterEntity> findAllByUserIdAndAppName(String userId, String appName);
 
     Mono<ParameterEntity> findByUserIdAndAppNameAndName(String userId, String appName, String name);
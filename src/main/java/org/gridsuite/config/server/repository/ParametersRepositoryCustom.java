@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Queries which can't be derived by spring-data-r2dbc because they depend on the database vendor.
+ */
+public interface ParametersRepositoryCustom {
+
+    /**
+     * Inserts or updates the value of a parameter in a single atomic statement. On H2, the returned sequence number is
+     * only the one of this write when run in a transaction.
+     *
+     * @return the change sequence number of the write
+     */
+    Mono<Long> upsert(String userId, String appName, String name, String value);
+
+    /**
+     * Inserts or updates the values of several parameters with multi-row statements, to be run in a transaction.
+     *
+     * @return the greatest change sequence number of the writes
+     */
+    Mono<Long> upsertAll(String userId, String appName, Map<String, String> parameters);
+
+    /**
+     * Finds the parameters of several users in a single query, ordered by user.
+     *
+     * @param appName the application name, or null for all the applications
+     * @param names the parameter names, or null for all the parameters
+     */
+    Flux<ParameterEntity> findAllByUserIds(Collection<String> userIds, String appName, Collection<String> names);
+
+    /**
+     * Deletes a parameter and records its deletion as a tombstone, to be run in a transaction.
+     *
+     * @return the change sequence number of the deletion, or empty when the parameter didn't exist
+     */
+    Mono<Long> delete(String userId, String appName, String name);
+
+    /**
+     * Deletes the parameters matching all the given criteria, and records their deletion as tombstones. The parameters
+     * are deleted in chunks committed separately, so that the rows are never locked for long: to be run outside of a
+     * transaction.
+     *
+     * @param userId the user id, or null for all the users
+     * @param appName the application name, or null for all the applications
+     * @param names the parameter names, or null for all the names
+     * @param namePattern a SQL LIKE pattern of the parameter names, or null for all the names
+     * @return the deleted parameters, with the change sequence numbers of their deletion
+     */
+    Flux<ParameterTombstoneEntity> deleteAllMatching(String userId, String appName, Collection<String> names, String namePattern, int chunkSize);
+
+    /**
+     * Finds the distinct names of the stored parameters, by application name. All the parameters are scanned, for the
+     * background jobs.
+     */
+    Mono<Map<String, Collection<String>>> findAllNames();
+
+    /**
+     * Records the deletion of a parameter as a tombstone, without deleting it.
+     *
+     * @return the change sequence number of the deletion
+     */
+    Mono<Long> recordDeletion(String userId, String appName, String name);
+
+    /**
+     * Purges a chunk of the tombstones of the deletions recorded before a date, and raises the deletions horizon to the
+     * greatest change number of the purged tombstones. To be run in a transaction.
+     *
+     * @return the number of purged tombstones, lower than the chunk size for the last chunk
+     */
+    Mono<Long> purgeDeletions(OffsetDateTime before, int chunkSize);
+
+    /**
+     * The greatest change number (transaction id on PostgreSQL, change sequence number on H2) of the purged tombstones:
+     * the deltas since a lower number may miss some deletions.
+     */
+    Mono<Long> findDeletionsHorizon();
+
+    /**
+     * The id below which all the transactions are complete, on PostgreSQL, where the changes are also numbered by the id
+     * of their transaction: the changes below the watermark are all committed or rolled back, so none of them can be
+     * committed after a read. Empty on H2, used for the tests, where the changes are only numbered by their change
+     * sequence number.
+     */
+    Mono<Long> findChangesWatermark();
+
+    /**
+     * Finds the parameters of a user written after a change number, ordered by change sequence number.
+     *
+     * @param appName the application name, or null for all the applications
+     * @param since the change number, a transaction id with a watermark or else a change sequence number
+     * @param watermark the watermark from {@link #findChangesWatermark}, the transaction ids being lower, or null
+     */
+    Flux<ParameterEntity> findAllChangedSince(String userId, String appName, long since, Long watermark);
+
+    /**
+     * Finds the parameters of a user deleted after a change number, ordered by change sequence number.
+     *
+     * @param appName the application name, or null for all the applications
+     * @param since the change number, a transaction id with a watermark or else a change sequence number
+     * @param watermark the watermark from {@link #findChangesWatermark}, the transaction ids being lower, or null
+     */
+    Flux<ParameterTombstoneEntity> findAllDeletedSince(String userId, String appName, long since, Long watermark);
+}
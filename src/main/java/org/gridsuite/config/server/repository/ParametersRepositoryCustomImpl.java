@@ -0,0 +1,346 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ParametersRepositoryCustomImpl implements ParametersRepositoryCustom {
+
+    // keeps the number of bind markers of a statement far below the database limits
+    private static final int UPSERT_BATCH_SIZE = 100;
+
+    // relies on the unique constraint on (user_id, app_name, name), each write takes a new change sequence number and
+    // the id of its transaction
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO parameters (id, user_id, app_name, name, value_, value_compressed, change_seq, change_txid) VALUES %s
+            ON CONFLICT (user_id, app_name, name)
+            DO UPDATE SET value_ = EXCLUDED.value_, value_compressed = EXCLUDED.value_compressed, change_seq = EXCLUDED.change_seq,
+                change_txid = EXCLUDED.change_txid
+            RETURNING change_seq
+            """;
+
+    private static final String POSTGRES_UPSERT_ROW = "(:id%1$d, :userId, :appName, :name%1$d, :value%1$d, :compressedValue%1$d, nextval('parameters_change_seq'), "
+            + "CAST(CAST(pg_current_xact_id() AS text) AS BIGINT))";
+
+    // H2 doesn't support ON CONFLICT ... DO UPDATE, used for the tests
+    private static final String H2_UPSERT = """
+            MERGE INTO parameters p
+            USING (VALUES %s) AS s(id, user_id, app_name, name, value_, value_compressed)
+            ON p.user_id = s.user_id AND p.app_name = s.app_name AND p.name = s.name
+            WHEN MATCHED THEN UPDATE SET value_ = s.value_, value_compressed = s.value_compressed, change_seq = NEXT VALUE FOR parameters_change_seq
+            WHEN NOT MATCHED THEN INSERT (id, user_id, app_name, name, value_, value_compressed, change_seq)
+                VALUES (s.id, s.user_id, s.app_name, s.name, s.value_, s.value_compressed, NEXT VALUE FOR parameters_change_seq)
+            """;
+
+    // typed, as the values or the compressed values of all the rows may be null
+    private static final String H2_UPSERT_ROW = "(CAST(:id%1$d AS UUID), :userId, :appName, :name%1$d, CAST(:value%1$d AS VARCHAR(4000)), "
+            + "CAST(:compressedValue%1$d AS VARBINARY))";
+
+    private static final String DELETE = "DELETE FROM parameters WHERE user_id = :userId AND app_name = :appName AND name = :name";
+
+    private static final String POSTGRES_UPSERT_TOMBSTONE = """
+            INSERT INTO parameters_tombstones (id, user_id, app_name, name, change_seq, change_txid)
+            VALUES (:id, :userId, :appName, :name, nextval('parameters_change_seq'), CAST(CAST(pg_current_xact_id() AS text) AS BIGINT))
+            ON CONFLICT (user_id, app_name, name) DO UPDATE SET change_seq = EXCLUDED.change_seq, change_txid = EXCLUDED.change_txid,
+                deletion_date = CURRENT_TIMESTAMP
+            RETURNING change_seq
+            """;
+
+    private static final String H2_UPSERT_TOMBSTONE = """
+            MERGE INTO parameters_tombstones t
+            USING (VALUES (CAST(:id AS UUID), :userId, :appName, :name)) AS s(id, user_id, app_name, name)
+            ON t.user_id = s.user_id AND t.app_name = s.app_name AND t.name = s.name
+            WHEN MATCHED THEN UPDATE SET change_seq = NEXT VALUE FOR parameters_change_seq, deletion_date = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN INSERT (id, user_id, app_name, name, change_seq)
+                VALUES (s.id, s.user_id, s.app_name, s.name, NEXT VALUE FOR parameters_change_seq)
+            """;
+
+    // a single statement per chunk, the deleted rows being locked until it completes
+    private static final String POSTGRES_DELETE_CHUNK = """
+            WITH deleted AS (
+                DELETE FROM parameters WHERE id IN (SELECT id FROM parameters WHERE %s LIMIT :chunkSize)
+                RETURNING user_id, app_name, name
+            )
+            INSERT INTO parameters_tombstones (id, user_id, app_name, name, change_seq, change_txid)
+            SELECT gen_random_uuid(), user_id, app_name, name, nextval('parameters_change_seq'), CAST(CAST(pg_current_xact_id() AS text) AS BIGINT) FROM deleted
+            ON CONFLICT (user_id, app_name, name) DO UPDATE SET change_seq = EXCLUDED.change_seq, change_txid = EXCLUDED.change_txid,
+                deletion_date = CURRENT_TIMESTAMP
+            RETURNING id, user_id, app_name, name, change_seq
+            """;
+
+    private static final String H2_DELETE_CHUNK = "SELECT user_id, app_name, name FROM OLD TABLE ("
+            + "DELETE FROM parameters WHERE id IN (SELECT id FROM parameters WHERE %s LIMIT :chunkSize))";
+
+    // the transactions with a lower id are all complete, the ids of the running transactions being greater or equal
+    private static final String POSTGRES_CHANGES_WATERMARK = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS BIGINT) AS watermark";
+
+    // the horizon is the greatest cursor of the purged tombstones: change_txid on Postgres, change_seq on H2
+    private static final String POSTGRES_PURGE_DELETIONS_CHUNK = """
+            WITH purged AS (
+                DELETE FROM parameters_tombstones WHERE id IN (SELECT id FROM parameters_tombstones WHERE deletion_date < :before LIMIT :chunkSize)
+                RETURNING change_txid
+            )
+            SELECT COUNT(*) AS purged, MAX(change_txid) AS horizon FROM purged
+            """;
+
+    private static final String H2_PURGE_DELETIONS_CHUNK = "SELECT COUNT(*) AS purged, MAX(change_seq) AS horizon FROM OLD TABLE ("
+            + "DELETE FROM parameters_tombstones WHERE id IN (SELECT id FROM parameters_tombstones WHERE deletion_date < :before LIMIT :chunkSize))";
+
+    private static final String RAISE_DELETIONS_HORIZON = "UPDATE parameters_tombstones_horizon SET horizon = :horizon WHERE id = 1 AND horizon < :horizon";
+
+    private static final String SELECT_DELETIONS_HORIZON = "SELECT horizon FROM parameters_tombstones_horizon WHERE id = 1";
+
+    private static final String SELECT_NAMES = "SELECT DISTINCT app_name, name FROM parameters";
+
+    // H2 doesn't support RETURNING on MERGE, the written rows are locked until the end of the transaction
+    private static final String H2_MAX_CHANGE_SEQ = "SELECT MAX(change_seq) AS change_seq FROM %s WHERE user_id = :userId AND app_name = :appName AND name IN (:names)";
+
+    private final DatabaseClient databaseClient;
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    private final boolean h2;
+
+    private final int compressionThreshold;
+
+    public ParametersRepositoryCustomImpl(DatabaseClient databaseClient, R2dbcEntityTemplate entityTemplate,
+                                          @Value("${config.storage.compression-threshold:1024}") int compressionThreshold) {
+        this.databaseClient = databaseClient;
+        this.entityTemplate = entityTemplate;
+        this.compressionThreshold = compressionThreshold;
+        this.h2 = DialectResolver.getDialect(databaseClient.getConnectionFactory()) instanceof H2Dialect;
+    }
+
+    @Override
+    public Mono<Long> upsert(String userId, String appName, String name, String value) {
+        return upsertAll(userId, appName, Map.of(name, value));
+    }
+
+    @Override
+    public Mono<Long> upsertAll(String userId, String appName, Map<String, String> parameters) {
+        List<Map.Entry<String, String>> entries = new ArrayList<>(parameters.entrySet());
+        return Flux.range(0, (entries.size() + UPSERT_BATCH_SIZE - 1) / UPSERT_BATCH_SIZE)
+                .map(i -> entries.subList(i * UPSERT_BATCH_SIZE, Math.min((i + 1) * UPSERT_BATCH_SIZE, entries.size())))
+                .concatMap(batch -> upsertBatch(userId, appName, batch))
+                .reduce(Math::max);
+    }
+
+    private Mono<Long> upsertBatch(String userId, String appName, List<Map.Entry<String, String>> batch) {
+        String rows = IntStream.range(0, batch.size())
+                .mapToObj(i -> String.format(h2 ? H2_UPSERT_ROW : POSTGRES_UPSERT_ROW, i))
+                .collect(Collectors.joining(", "));
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(String.format(h2 ? H2_UPSERT : POSTGRES_UPSERT, rows))
+                .bind("userId", userId)
+                .bind("appName", appName);
+        for (int i = 0; i < batch.size(); i++) {
+            String value = batch.get(i).getValue();
+            // the small values stay uncompressed, to keep them cheap to read
+            boolean compressed = value.length() > compressionThreshold;
+            spec = spec.bind("id" + i, UUID.randomUUID())
+                    .bind("name" + i, batch.get(i).getKey())
+                    .bind("value" + i, Parameter.fromOrEmpty(compressed ? null : value, String.class))
+                    .bind("compressedValue" + i, Parameter.fromOrEmpty(compressed ? ParameterValues.compress(value) : null, byte[].class));
+        }
+        if (h2) {
+            return spec.then().then(maxChangeSeq("parameters", userId, appName, batch.stream().map(Map.Entry::getKey).toList()));
+        }
+        return spec.map(row -> row.get("change_seq", Long.class)).all().reduce(Math::max);
+    }
+
+    private Mono<Long> maxChangeSeq(String table, String userId, String appName, List<String> names) {
+        return databaseClient.sql(String.format(H2_MAX_CHANGE_SEQ, table))
+                .bind("userId", userId)
+                .bind("appName", appName)
+                .bind("names", names)
+                .map(row -> row.get("change_seq", Long.class))
+                .one();
+    }
+
+    @Override
+    public Flux<ParameterEntity> findAllByUserIds(Collection<String> userIds, String appName, Collection<String> names) {
+        if (userIds.isEmpty() || names != null && names.isEmpty()) {
+            return Flux.empty();
+        }
+        Criteria criteria = Criteria.where("userId").in(userIds);
+        if (appName != null) {
+            criteria = criteria.and("appName").is(appName);
+        }
+        if (names != null) {
+            criteria = criteria.and("name").in(names);
+        }
+        return entityTemplate.select(ParameterEntity.class)
+                .matching(Query.query(criteria).sort(Sort.by("userId")))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> delete(String userId, String appName, String name) {
+        return databaseClient.sql(DELETE)
+                .bind("userId", userId)
+                .bind("appName", appName)
+                .bind("name", name)
+                .fetch().rowsUpdated()
+                .filter(deleted -> deleted > 0)
+                .flatMap(deleted -> recordDeletion(userId, appName, name));
+    }
+
+    @Override
+    public Flux<ParameterTombstoneEntity> deleteAllMatching(String userId, String appName, Collection<String> names, String namePattern, int chunkSize) {
+        if (names != null && names.isEmpty()) {
+            return Flux.empty();
+        }
+        List<String> criteria = new ArrayList<>();
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        if (userId != null) {
+            criteria.add("user_id = :userId");
+            bindings.put("userId", userId);
+        }
+        if (appName != null) {
+            criteria.add("app_name = :appName");
+            bindings.put("appName", appName);
+        }
+        if (names != null) {
+            criteria.add("name IN (:names)");
+            bindings.put("names", names);
+        }
+        if (namePattern != null) {
+            criteria.add("name LIKE :namePattern");
+            bindings.put("namePattern", namePattern);
+        }
+        bindings.put("chunkSize", chunkSize);
+        String where = criteria.isEmpty() ? "1 = 1" : String.join(" AND ", criteria);
+        return Mono.defer(() -> deleteChunk(where, bindings).collectList())
+                .repeat()
+                .takeUntil(deleted -> deleted.size() < chunkSize)
+                .concatMapIterable(Function.identity());
+    }
+
+    private Flux<ParameterTombstoneEntity> deleteChunk(String where, Map<String, Object> bindings) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(String.format(h2 ? H2_DELETE_CHUNK : POSTGRES_DELETE_CHUNK, where));
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        if (h2) {
+            // used for the tests, the tombstones are written one by one after the deletion
+            return spec.map(row -> List.of(row.get("user_id", String.class), row.get("app_name", String.class), row.get("name", String.class)))
+                    .all()
+                    .collectList()
+                    .flatMapIterable(Function.identity())
+                    .concatMap(deleted -> recordDeletion(deleted.get(0), deleted.get(1), deleted.get(2))
+                            .map(changeSeq -> new ParameterTombstoneEntity(null, deleted.get(0), deleted.get(1), deleted.get(2), changeSeq)));
+        }
+        return spec.map(row -> new ParameterTombstoneEntity(row.get("id", UUID.class), row.get("user_id", String.class),
+                        row.get("app_name", String.class), row.get("name", String.class), row.get("change_seq", Long.class)))
+                .all();
+    }
+
+    @Override
+    public Mono<Map<String, Collection<String>>> findAllNames() {
+        return databaseClient.sql(SELECT_NAMES)
+                .map(row -> List.of(row.get("app_name", String.class), row.get("name", String.class)))
+                .all()
+                .collectMultimap(names -> names.get(0), names -> names.get(1));
+    }
+
+    @Override
+    public Mono<Long> recordDeletion(String userId, String appName, String name) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(h2 ? H2_UPSERT_TOMBSTONE : POSTGRES_UPSERT_TOMBSTONE)
+                .bind("id", UUID.randomUUID())
+                .bind("userId", userId)
+                .bind("appName", appName)
+                .bind("name", name);
+        if (h2) {
+            return spec.then().then(maxChangeSeq("parameters_tombstones", userId, appName, List.of(name)));
+        }
+        return spec.map(row -> row.get("change_seq", Long.class)).one();
+    }
+
+    @Override
+    public Mono<Long> purgeDeletions(OffsetDateTime before, int chunkSize) {
+        return databaseClient.sql(h2 ? H2_PURGE_DELETIONS_CHUNK : POSTGRES_PURGE_DELETIONS_CHUNK)
+                .bind("before", before)
+                .bind("chunkSize", chunkSize)
+                .map(row -> Tuples.of(row.get("purged", Long.class), Optional.ofNullable(row.get("horizon", Long.class))))
+                .one()
+                .flatMap(purged -> purged.getT2()
+                        .map(horizon -> databaseClient.sql(RAISE_DELETIONS_HORIZON).bind("horizon", horizon).then())
+                        .orElse(Mono.empty())
+                        .thenReturn(purged.getT1()));
+    }
+
+    @Override
+    public Mono<Long> findDeletionsHorizon() {
+        return databaseClient.sql(SELECT_DELETIONS_HORIZON)
+                .map(row -> row.get("horizon", Long.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Long> findChangesWatermark() {
+        if (h2) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(POSTGRES_CHANGES_WATERMARK)
+                .map(row -> row.get("watermark", Long.class))
+                .one();
+    }
+
+    @Override
+    public Flux<ParameterEntity> findAllChangedSince(String userId, String appName, long since, Long watermark) {
+        return entityTemplate.select(ParameterEntity.class)
+                .matching(changedSince(userId, appName, since, watermark))
+                .all();
+    }
+
+    @Override
+    public Flux<ParameterTombstoneEntity> findAllDeletedSince(String userId, String appName, long since, Long watermark) {
+        return entityTemplate.select(ParameterTombstoneEntity.class)
+                .matching(changedSince(userId, appName, since, watermark))
+                .all();
+    }
+
+    // served by the (user_id, change_seq) and (user_id, change_txid) indexes, change_txid isn't mapped by the entities,
+    // the rows written before the transaction ids were recorded have a change_txid of 0
+    private static Query changedSince(String userId, String appName, long since, Long watermark) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (watermark == null) {
+            criteria = criteria.and("changeSeq").greaterThan(since);
+        } else {
+            criteria = criteria.and("change_txid").lessThan(watermark);
+            if (since > 0) {
+                criteria = criteria.and("change_txid").greaterThan(since);
+            }
+        }
+        if (appName != null) {
+            criteria = criteria.and("appName").is(appName);
+        }
+        return Query.query(criteria).sort(Sort.by("changeSeq"));
+    }
+}
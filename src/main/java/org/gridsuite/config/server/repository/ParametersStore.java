@@ -0,0 +1,21 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.repository;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * The storage of the parameters used by the services, one row per parameter in the parameters table by default
+ * ({@link ParametersRepository}), or one JSON document per user and application in the parameters_documents table
+ * with config.storage.mode=document ({@link ParameterDocumentsRepository}).
+ */
+public interface ParametersStore extends ParametersRepositoryCustom {
+
+    Flux<ParameterEntity> findAllByUserId(String userId);
+
+    Flux<ParameterEntity> findAllByUserIdAndAppName(String userId, String appName);
+}
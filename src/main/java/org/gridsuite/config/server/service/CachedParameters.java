@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * A parameter set with its JSON serialization, and a version derived from it used as ETag.
+ * The version changes with every write modifying the set, and is the same on all the instances.
+ */
+@Getter
+public final class CachedParameters {
+
+    private final List<ParameterInfos> parameters;
+
+    @Getter(AccessLevel.NONE)
+    private final byte[] json;
+
+    private final String version;
+
+    private CachedParameters(List<ParameterInfos> parameters, byte[] json) {
+        this.parameters = List.copyOf(parameters);
+        this.json = json;
+        this.version = DigestUtils.md5DigestAsHex(json);
+    }
+
+    public static CachedParameters of(List<ParameterInfos> parameters, ObjectMapper objectMapper) {
+        try {
+            return new CachedParameters(parameters, objectMapper.writeValueAsBytes(parameters));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the serialized parameters, wrapped without copy so the buffer must not be written
+     */
+    public DataBuffer toDataBuffer() {
+        return DefaultDataBufferFactory.sharedInstance.wrap(json);
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.gridsuite.config.server.service.NotificationService.*;
+
+/**
+ * Consumes the config.update messages sent by all the instances (including this one): evicts the stale cache entries
+ * and publishes the changes to the local subscribers. Consumes the config.defaults.update messages: reloads the
+ * defaults and evicts all the cache entries.
+ */
+@Service
+public class ConsumerService {
+
+    private static final String CATEGORY_BROKER_INPUT = ConsumerService.class.getName() + ".input-broker-messages";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CATEGORY_BROKER_INPUT);
+
+    private final ParametersCache parametersCache;
+
+    private final DefaultParametersService defaultParametersService;
+
+    private final ReadReplicaRouting readReplicaRouting;
+
+    private final ObjectMapper objectMapper;
+
+    // subscribers too slow to keep up miss the changes instead of slowing down the others
+    private final Sinks.Many<ParameterChanges> changes = Sinks.many().multicast().directBestEffort();
+
+    public ConsumerService(ParametersCache parametersCache, DefaultParametersService defaultParametersService, ReadReplicaRouting readReplicaRouting,
+                           ObjectMapper objectMapper) {
+        this.parametersCache = parametersCache;
+        this.defaultParametersService = defaultParametersService;
+        this.readReplicaRouting = readReplicaRouting;
+        this.objectMapper = objectMapper;
+    }
+
+    public Flux<ParameterChanges> getParameterChanges() {
+        return changes.asFlux();
+    }
+
+    @Bean
+    public Consumer<Message<String>> consumeConfigUpdate() {
+        return message -> {
+            LOGGER.debug("Received message : {}", message);
+            MessageHeaders headers = message.getHeaders();
+            String userId = headers.get(HEADER_USER_ID, String.class);
+            String appName = headers.get(HEADER_APP_NAME, String.class);
+            if (userId == null || appName == null) {
+                readReplicaRouting.onWriteOfAllUsers();
+                parametersCache.evictAll();
+                return;
+            }
+            readReplicaRouting.onWrite(userId);
+            parametersCache.evict(userId, appName);
+            changes.emitNext(new ParameterChanges(userId, appName, getParameterNames(headers), getValues(message)),
+                    Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        };
+    }
+
+    @Bean
+    public Consumer<Message<String>> consumeDefaultsUpdate() {
+        return message -> {
+            LOGGER.debug("Received message : {}", message);
+            defaultParametersService.reload();
+            parametersCache.evictAll();
+        };
+    }
+
+    private static List<String> getParameterNames(MessageHeaders headers) {
+        Object names = headers.get(HEADER_PARAMETER_NAMES);
+        if (names instanceof List<?> list) {
+            return list.stream().map(Object::toString).toList();
+        }
+        String name = headers.get(HEADER_PARAMETER_NAME, String.class);
+        return name != null ? List.of(name) : List.of();
+    }
+
+    private Map<String, String> getValues(Message<String> message) {
+        if (!Boolean.parseBoolean(String.valueOf(message.getHeaders().get(HEADER_VALUES_INCLUDED)))) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(message.getPayload(), new TypeReference<>() { });
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Ignoring the invalid values of message : {}", message, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.repository.DefaultParameterEntity;
+import org.gridsuite.config.server.repository.DefaultParametersRepository;
+import org.gridsuite.config.server.repository.ParameterEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.gridsuite.config.server.repository.DefaultParameterEntity.GLOBAL_APP_NAME;
+
+/**
+ * Holds in memory the default values of the parameters, shared by all the applications (global) or specific to an
+ * application, and merges them under the values of a user. The defaults are loaded on first use and reloaded after
+ * each change, on all the instances.
+ */
+@Service
+public class DefaultParametersService {
+
+    private record Defaults(Map<String, String> global, Map<String, Map<String, String>> applications) {
+    }
+
+    private final DefaultParametersRepository defaultParametersRepository;
+
+    private volatile Mono<Defaults> defaults;
+
+    public DefaultParametersService(DefaultParametersRepository defaultParametersRepository) {
+        this.defaultParametersRepository = defaultParametersRepository;
+        this.defaults = load();
+    }
+
+    private Mono<Defaults> load() {
+        return defaultParametersRepository.findAll()
+                // sorted so that the merged sets, and their version, are the same on all the instances
+                .sort(Comparator.comparing(DefaultParameterEntity::getAppName).thenComparing(DefaultParameterEntity::getName))
+                .collectList()
+                .map(entities -> {
+                    Map<String, String> global = new LinkedHashMap<>();
+                    Map<String, Map<String, String>> applications = new TreeMap<>();
+                    entities.forEach(entity -> {
+                        if (GLOBAL_APP_NAME.equals(entity.getAppName())) {
+                            global.put(entity.getName(), entity.getValue());
+                        } else {
+                            applications.computeIfAbsent(entity.getAppName(), appName -> new LinkedHashMap<>()).put(entity.getName(), entity.getValue());
+                        }
+                    });
+                    return new Defaults(global, applications);
+                })
+                // kept until the next reload, errors are not kept so that the next read retries
+                .cache(d -> Duration.ofMillis(Long.MAX_VALUE), e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    /**
+     * The parameter sets merged before the reload must be evicted afterward.
+     */
+    public void reload() {
+        defaults = load();
+    }
+
+    /**
+     * @return the values of the user, then the defaults of the application and the global defaults not set by the user
+     */
+    public Mono<List<ParameterInfos>> merge(String appName, List<ParameterEntity> entities) {
+        return defaults.map(d -> {
+            Map<String, String> values = new LinkedHashMap<>();
+            entities.forEach(entity -> values.put(entity.getName(), entity.getValue()));
+            d.applications().getOrDefault(appName, Map.of()).forEach(values::putIfAbsent);
+            d.global().forEach(values::putIfAbsent);
+            return values.entrySet().stream().map(e -> new ParameterInfos(e.getKey(), e.getValue())).toList();
+        });
+    }
+
+    /**
+     * For the parameters of all the applications: the values of the user, then the defaults of each application not
+     * set by the user for this application, then the global defaults of names not found in any application.
+     */
+    public Mono<List<ParameterInfos>> mergeAll(List<ParameterEntity> entities) {
+        return mergeAll(Flux.fromIterable(entities)).collectList();
+    }
+
+    /**
+     * Same as {@link #mergeAll(List)}, the values of the user being emitted as they are read: only their names are
+     * kept until the defaults are emitted at the end.
+     */
+    public Flux<ParameterInfos> mergeAll(Flux<ParameterEntity> entities) {
+        return defaults.flatMapMany(d -> {
+            Map<String, Set<String>> namesByApplication = new HashMap<>();
+            Set<String> names = new HashSet<>();
+            return entities.map(entity -> {
+                namesByApplication.computeIfAbsent(entity.getAppName(), appName -> new HashSet<>()).add(entity.getName());
+                names.add(entity.getName());
+                return entity.toConfigInfos();
+            }).concatWith(Flux.defer(() -> {
+                List<ParameterInfos> parameters = new ArrayList<>();
+                d.applications().forEach((appName, values) -> values.forEach((name, value) -> {
+                    if (!namesByApplication.getOrDefault(appName, Set.of()).contains(name)) {
+                        parameters.add(new ParameterInfos(name, value));
+                    }
+                    names.add(name);
+                }));
+                d.global().forEach((name, value) -> {
+                    if (!names.contains(name)) {
+                        parameters.add(new ParameterInfos(name, value));
+                    }
+                });
+                return Flux.fromIterable(parameters);
+            }));
+        });
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and distributions of the service operations, the repository queries and the notifications, exported with
+ * the other Micrometer metrics.
+ */
+@Service
+public class MetricsService {
+
+    public static final String OPERATION_METER = "config.service.operation";
+    public static final String QUERY_METER = "config.repository.query";
+    public static final String NOTIFICATION_METER = "config.notification.publish";
+    public static final String NOTIFICATION_FAILURES_METER = "config.notification.failures";
+    public static final String NOTIFICATION_QUEUE_METER = "config.notification.queue.size";
+    public static final String NOTIFICATION_DROPPED_METER = "config.notification.dropped";
+    public static final String ROWS_METER = "config.parameters.rows";
+    public static final String BULK_SIZE_METER = "config.parameters.bulk.size";
+
+    public static final String OPERATION_TAG = "operation";
+    public static final String QUERY_TAG = "query";
+    public static final String APP_NAME_TAG = "appName";
+    public static final String OUTCOME_TAG = "outcome";
+
+    // used when the operation is not specific to an application
+    private static final String ALL_APPLICATIONS = "all";
+
+    // used for the applications beyond the max number of application names
+    public static final String OTHER_APPLICATIONS = "other";
+
+    // bounds of the histograms of the numbers of parameters, much cheaper than the percentile histograms
+    private static final double[] COUNT_BUCKETS = {1, 10, 100, 1000, 10000};
+
+    private final MeterRegistry meterRegistry;
+
+    private final DistributionSummary rows;
+
+    private final DistributionSummary bulkSize;
+
+    private final Timer notificationTimer;
+
+    public MetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.rows = DistributionSummary.builder(ROWS_METER)
+                .description("Number of parameters read for a user")
+                .baseUnit("rows")
+                .serviceLevelObjectives(COUNT_BUCKETS)
+                .register(meterRegistry);
+        this.bulkSize = DistributionSummary.builder(BULK_SIZE_METER)
+                .description("Number of parameters written by a bulk update")
+                .baseUnit("parameters")
+                .serviceLevelObjectives(COUNT_BUCKETS)
+                .register(meterRegistry);
+        this.notificationTimer = Timer.builder(NOTIFICATION_METER)
+                .description("Time to publish a config.update message")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The application names come from the clients, only the first ones get their own time series, the operations of
+     * the next ones are timed with the other application name.
+     */
+    @Bean
+    public static MeterFilter appNameCardinalityFilter(@Value("${config.metrics.max-app-names:50}") int maxAppNames) {
+        Set<String> appNames = ConcurrentHashMap.newKeySet();
+        return MeterFilter.replaceTagValues(APP_NAME_TAG, appName -> {
+            if (appNames.contains(appName)) {
+                return appName;
+            }
+            synchronized (appNames) {
+                if (appNames.size() < maxAppNames) {
+                    appNames.add(appName);
+                }
+                return appNames.contains(appName) ? appName : OTHER_APPLICATIONS;
+            }
+        });
+    }
+
+    /**
+     * @param appName the application name, or null when the operation concerns all the applications
+     */
+    public <T> Mono<T> timeOperation(String operation, String appName, Mono<T> mono) {
+        Tags tags = Tags.of(OPERATION_TAG, operation, APP_NAME_TAG, appName != null ? appName : ALL_APPLICATIONS);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> stop(sample, OPERATION_METER, tags, signal));
+        });
+    }
+
+    public <T> Flux<T> timeOperation(String operation, String appName, Flux<T> flux) {
+        Tags tags = Tags.of(OPERATION_TAG, operation, APP_NAME_TAG, appName != null ? appName : ALL_APPLICATIONS);
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return flux.doFinally(signal -> stop(sample, OPERATION_METER, tags, signal));
+        });
+    }
+
+    public <T> Mono<T> timeQuery(String query, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> stop(sample, QUERY_METER, Tags.of(QUERY_TAG, query), signal));
+        });
+    }
+
+    public <T> Flux<T> timeQuery(String query, Flux<T> flux) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return flux.doFinally(signal -> stop(sample, QUERY_METER, Tags.of(QUERY_TAG, query), signal));
+        });
+    }
+
+    public void recordRows(int count) {
+        rows.record(count);
+    }
+
+    public void recordBulkSize(int count) {
+        bulkSize.record(count);
+    }
+
+    public void recordNotification(long durationNanos, boolean success) {
+        notificationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (!success) {
+            meterRegistry.counter(NOTIFICATION_FAILURES_METER).increment();
+        }
+    }
+
+    public void registerNotificationQueue(Collection<?> queue) {
+        meterRegistry.gauge(NOTIFICATION_QUEUE_METER, queue, Collection::size);
+    }
+
+    public void recordNotificationDropped() {
+        meterRegistry.counter(NOTIFICATION_DROPPED_METER).increment();
+    }
+
+    // the percentile histograms are only published for the operations, the queries having far more time series
+    private void stop(Timer.Sample sample, String name, Tags tags, SignalType signal) {
+        String outcome = switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "success";
+        };
+        sample.stop(Timer.builder(name)
+                .tags(tags)
+                .tag(OUTCOME_TAG, outcome)
+                .publishPercentileHistogram(OPERATION_METER.equals(name))
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.gridsuite.config.server.repository.OutboxEntity;
+import org.gridsuite.config.server.repository.OutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opt-in transactional outbox of the parameter changes: the changes are written in the parameters_outbox table in the
+ * transaction of the parameters, then sent on config.update by a relay draining the table in batches. A change is
+ * never lost when the instance stops between the write and the send, and may be sent twice when it stops between the
+ * send and the deletion of the row.
+ * Each batch is claimed in a short transaction and sent outside of it, so that no connection is held during the sends.
+ * The rows of a relay stopped before deleting them are sent again once their claim expires.
+ */
+@Service
+public class NotificationOutbox implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    private record OutboxKey(String userId, String appName) {
+    }
+
+    private static final class OutboxChanges {
+        private final List<Long> ids = new ArrayList<>();
+        private final Map<String, String> values = new LinkedHashMap<>();
+        private long version;
+    }
+
+    private final boolean enabled;
+
+    private final Duration pollInterval;
+
+    private final int batchSize;
+
+    private final Duration claimTimeout;
+
+    private final Duration shutdownTimeout;
+
+    private final OutboxRepository outboxRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final NotificationService notificationService;
+
+    private final ObjectMapper objectMapper;
+
+    // a thread allowed to block, for StreamBridge.send
+    private final Scheduler relayScheduler = Schedulers.newBoundedElastic(1, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "config-notifications-outbox");
+
+    private Disposable periodicRelay;
+
+    private volatile boolean running;
+
+    public NotificationOutbox(@Value("${config.notification.outbox.enabled:false}") boolean enabled,
+                              @Value("${config.notification.outbox.poll-interval:PT0.1S}") Duration pollInterval,
+                              @Value("${config.notification.outbox.batch-size:500}") int batchSize,
+                              @Value("${config.notification.outbox.claim-timeout:PT1M}") Duration claimTimeout,
+                              @Value("${config.notification.shutdown-timeout:PT10S}") Duration shutdownTimeout,
+                              OutboxRepository outboxRepository, TransactionalOperator transactionalOperator,
+                              NotificationService notificationService, ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.claimTimeout = claimTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+        this.outboxRepository = outboxRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (enabled) {
+            periodicRelay = Flux.interval(pollInterval, pollInterval, relayScheduler)
+                    .onBackpressureDrop()
+                    .concatMap(i -> relay().onErrorResume(e -> {
+                        LOGGER.error("Failed to relay the parameter changes of the outbox", e);
+                        return Mono.empty();
+                    }), 1)
+                    .subscribe();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (periodicRelay != null) {
+            periodicRelay.dispose();
+            relay().block(shutdownTimeout);
+        }
+        relayScheduler.dispose();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // relayed before the notifications are stopped
+    @Override
+    public int getPhase() {
+        return NotificationService.NOTIFICATIONS_PHASE + 1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records the changes in the outbox when enabled, to be run in the transaction of the changes. When disabled, the
+     * changes are to be sent with {@link NotificationService#emitConfigParameterChanges} after the commit.
+     */
+    public Mono<Void> record(String userId, String appName, Map<String, String> values, long version) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(values))
+                .flatMap(json -> outboxRepository.save(new OutboxEntity(null, userId, appName, json, version)))
+                .then();
+    }
+
+    /**
+     * Sends the changes of the outbox, batch by batch, until it's empty or a send fails.
+     */
+    public Mono<Void> relay() {
+        return Mono.defer(this::relayBatch)
+                .repeat()
+                .takeWhile(relayed -> relayed == batchSize)
+                .then();
+    }
+
+    /**
+     * @return the number of rows sent, less than the batch size when stopped by a failure or by the end of the outbox
+     */
+    private Mono<Integer> relayBatch() {
+        return Mono.defer(() -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            return outboxRepository.tryLockRelay()
+                    // relayed by another instance
+                    .filter(Boolean::booleanValue)
+                    .flatMapMany(locked -> outboxRepository.claimBatch(batchSize, now, now.plus(claimTimeout)))
+                    .collectList()
+                    .as(transactionalOperator::transactional);
+        })
+                .filter(rows -> !rows.isEmpty())
+                .publishOn(relayScheduler)
+                .flatMap(rows -> {
+                    Set<Long> sent = new HashSet<>(send(rows));
+                    List<Long> unsent = rows.stream().map(OutboxEntity::getId).filter(id -> !sent.contains(id)).toList();
+                    return outboxRepository.deleteAllById(sent)
+                            .then(outboxRepository.releaseClaims(unsent))
+                            .as(transactionalOperator::transactional)
+                            .thenReturn(unsent.isEmpty() ? rows.size() : 0);
+                })
+                .defaultIfEmpty(0);
+    }
+
+    /**
+     * The changes of a user and an application in the batch are sent as a single message, in the order of their
+     * first change. Stops at the first failure so that the changes are sent in order, the remaining rows are sent
+     * again by the next relay.
+     *
+     * @return the ids of the rows sent
+     */
+    private List<Long> send(List<OutboxEntity> rows) {
+        Map<OutboxKey, OutboxChanges> changesByKey = new LinkedHashMap<>();
+        rows.forEach(row -> {
+            OutboxChanges changes = changesByKey.computeIfAbsent(new OutboxKey(row.getUserId(), row.getAppName()), key -> new OutboxChanges());
+            changes.ids.add(row.getId());
+            changes.values.putAll(readValues(row.getValues()));
+            changes.version = Math.max(changes.version, row.getVersion());
+        });
+        List<Long> sent = new ArrayList<>();
+        for (Map.Entry<OutboxKey, OutboxChanges> entry : changesByKey.entrySet()) {
+            OutboxChanges changes = entry.getValue();
+            if (!notificationService.sendConfigParameterChangesNow(entry.getKey().userId(), entry.getKey().appName(), changes.values, changes.version)) {
+                LOGGER.warn("Failed to relay the parameter changes of the outbox, {} rows to send again", rows.size() - sent.size());
+                break;
+            }
+            sent.addAll(changes.ids);
+        }
+        return sent;
+    }
+
+    private Map<String, String> readValues(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, String>>() { });
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -6,14 +6,32 @@
  */
 package org.gridsuite.config.server.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.gridsuite.config.server.ConfigService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Seddik Yengui <seddik.yengui at rte-france.com>
@@ -21,8 +39,17 @@ import org.springframework.stereotype.Service;
 
 // Today we don't send notification inside @Transactional block. If this behavior change, we should use @PostCompletion to
 // make sure that the notification is sent only when all the work inside @Transactional block is done.
+// StreamBridge.send blocks until the broker accepts the message: the messages are queued and sent by a dedicated thread,
+// so that a slow broker never blocks the reactive threads. The messages are dropped when the queue is full.
 @Service
-public class NotificationService {
+public class NotificationService implements SmartLifecycle {
+
+    /**
+     * The queued messages are sent on shutdown after the web server is stopped (phase DEFAULT_PHASE - 2048), so that
+     * the changes of the last requests are notified, and before the output bindings are stopped (phase
+     * Integer.MIN_VALUE + 1000). The components sending through this service are stopped in a higher phase.
+     */
+    public static final int NOTIFICATIONS_PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
 
     private static final String CATEGORY_BROKER_OUTPUT = ConfigService.class.getName() + ".output-broker-messages";
 
@@ -31,21 +58,243 @@ public class NotificationService {
     public static final String HEADER_USER_ID = "userId";
     public static final String HEADER_APP_NAME = "appName";
     public static final String HEADER_PARAMETER_NAME = "parameterName";
+    public static final String HEADER_PARAMETER_NAMES = "parameterNames";
+    public static final String HEADER_VERSION = "version";
+    public static final String HEADER_VALUES_INCLUDED = "valuesIncluded";
+
+    private static final String CONFIG_UPDATE_BINDING = "publishConfigUpdate-out-0";
+
+    private static final String DEFAULTS_UPDATE_BINDING = "publishDefaultsUpdate-out-0";
 
     @Autowired
     private StreamBridge streamBridge;
 
+    private record OutgoingMessage(String bindingName, Message<String> message) {
+    }
+
+    private record CoalescingKey(String userId, String appName) {
+    }
+
+    // only accessed while mapped in pendingChanges, or after having been removed from it
+    private static final class PendingChanges {
+        private final long firstChangeNanos;
+        private final Map<String, String> values = new LinkedHashMap<>();
+        private long version;
+        private Disposable flush;
+
+        private PendingChanges(long firstChangeNanos) {
+            this.firstChangeNanos = firstChangeNanos;
+        }
+    }
+
+    private final boolean coalescingEnabled;
+
+    private final Duration coalescingWindow;
+
+    private final Duration coalescingMaxDelay;
+
+    private final boolean valuesEnabled;
+
+    private final int valuesMaxSize;
+
+    private final MetricsService metricsService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<CoalescingKey, PendingChanges> pendingChanges = new ConcurrentHashMap<>();
+
+    private final Scheduler coalescingScheduler = Schedulers.newSingle("config-notifications-coalescing");
+
+    // a thread allowed to block, for StreamBridge.send
+    private final Scheduler publishingScheduler = Schedulers.newBoundedElastic(1, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "config-notifications-publishing");
+
+    private final BlockingQueue<OutgoingMessage> queue;
+
+    private final Sinks.Many<OutgoingMessage> messages;
+
+    private final CountDownLatch published = new CountDownLatch(1);
+
+    private final Duration shutdownTimeout;
+
+    private volatile boolean running;
+
+    public NotificationService(@Value("${config.notification.coalescing.enabled:false}") boolean coalescingEnabled,
+                               @Value("${config.notification.coalescing.window:PT0.2S}") Duration coalescingWindow,
+                               @Value("${config.notification.coalescing.max-delay:PT1S}") Duration coalescingMaxDelay,
+                               @Value("${config.notification.values.enabled:false}") boolean valuesEnabled,
+                               @Value("${config.notification.values.max-size:16384}") int valuesMaxSize,
+                               @Value("${config.notification.queue-capacity:10000}") int queueCapacity,
+                               @Value("${config.notification.shutdown-timeout:PT10S}") Duration shutdownTimeout,
+                               MetricsService metricsService, ObjectMapper objectMapper) {
+        this.coalescingEnabled = coalescingEnabled;
+        this.coalescingWindow = coalescingWindow;
+        this.coalescingMaxDelay = coalescingMaxDelay;
+        this.valuesEnabled = valuesEnabled;
+        this.valuesMaxSize = valuesMaxSize;
+        this.metricsService = metricsService;
+        this.objectMapper = objectMapper;
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.messages = Sinks.many().unicast().onBackpressureBuffer(queue);
+        metricsService.registerNotificationQueue(queue);
+        this.messages.asFlux()
+                .publishOn(publishingScheduler, 1)
+                .doFinally(signal -> published.countDown())
+                .subscribe(message -> send(message.bindingName(), message.message()));
+    }
+
     private void sendUpdateMessage(Message<String> message) {
+        sendMessage(CONFIG_UPDATE_BINDING, message);
+    }
+
+    private void sendMessage(String bindingName, Message<String> message) {
+        OutgoingMessage outgoing = new OutgoingMessage(bindingName, message);
+        Sinks.EmitResult result = messages.tryEmitNext(outgoing);
+        // the emissions from several threads are serialized by retrying
+        while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+            result = messages.tryEmitNext(outgoing);
+        }
+        if (result.isFailure()) {
+            LOGGER.warn("Dropping message ({}) : {}", result, message);
+            metricsService.recordNotificationDropped();
+        }
+    }
+
+    private boolean send(String bindingName, Message<String> message) {
         LOGGER.debug("Sending message : {}", message);
-        streamBridge.send("publishConfigUpdate-out-0", message);
+        long start = System.nanoTime();
+        boolean sent = false;
+        try {
+            sent = streamBridge.send(bindingName, message);
+        } catch (RuntimeException e) {
+            // not propagated, it would stop the sending of the next messages
+            LOGGER.error("Failed to send message : {}", message, e);
+        } finally {
+            metricsService.recordNotification(System.nanoTime() - start, sent);
+        }
+        return sent;
     }
 
-    public void emitConfigParameterChanges(String userId, String appName, String name) {
-        Message<String> message = MessageBuilder.withPayload("")
-                .setHeader(HEADER_USER_ID, userId)
+    /**
+     * Sends a single message for several parameters changed together, the parameterName header is only set when
+     * exactly one parameter changed. The version header is the change sequence number of the changes, which orders the
+     * messages of a user and an application: it isn't a cursor of the delta synchronization, whose cursors are transaction
+     * ids on PostgreSQL.
+     * When enabled, the payload is the JSON object of the new values by name (null for a deleted parameter) unless
+     * larger than the max size, and the valuesIncluded header tells whether the consumers can use it instead of reading
+     * the parameters.
+     * When coalescing is enabled, the changes of a user and an application are delayed until no other change happened
+     * during the coalescing window, or until the max delay after the first change, and sent as a single message.
+     *
+     * @param values the new values by name, null for a deleted parameter
+     */
+    public void emitConfigParameterChanges(String userId, String appName, Map<String, String> values, long version) {
+        if (!coalescingEnabled) {
+            sendConfigParameterChanges(userId, appName, values, version);
+            return;
+        }
+        pendingChanges.compute(new CoalescingKey(userId, appName), (key, pending) -> {
+            long now = System.nanoTime();
+            PendingChanges changes = pending != null ? pending : new PendingChanges(now);
+            changes.values.putAll(values);
+            changes.version = Math.max(changes.version, version);
+            if (changes.flush != null) {
+                changes.flush.dispose();
+            }
+            long delay = Math.min(coalescingWindow.toNanos(), changes.firstChangeNanos + coalescingMaxDelay.toNanos() - now);
+            changes.flush = coalescingScheduler.schedule(() -> flush(key, changes), Math.max(delay, 0), TimeUnit.NANOSECONDS);
+            return changes;
+        });
+    }
+
+    private void flush(CoalescingKey key, PendingChanges changes) {
+        // the flush may have been rescheduled while already running, the changes are only sent once
+        if (pendingChanges.remove(key, changes)) {
+            sendConfigParameterChanges(key.userId(), key.appName(), changes.values, changes.version);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        pendingChanges.forEach(this::flush);
+        coalescingScheduler.dispose();
+        // the queued messages are sent before closing the bindings
+        messages.emitComplete(Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        try {
+            if (!published.await(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("{} messages not sent before shutdown", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        publishingScheduler.dispose();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return NOTIFICATIONS_PHASE;
+    }
+
+    /**
+     * Sent on config.defaults.update, without userId, as the change of a default value may change the parameters of all
+     * the users: the consumers of config.update only get the changes of the parameters of the users.
+     *
+     * @param appName the application name, or null for a global default
+     */
+    public void emitDefaultParameterChanges(String appName, String name) {
+        sendMessage(DEFAULTS_UPDATE_BINDING, MessageBuilder.withPayload("")
                 .setHeader(HEADER_APP_NAME, appName)
                 .setHeader(HEADER_PARAMETER_NAME, name)
-                .build();
-        sendUpdateMessage(message);
+                .build());
+    }
+
+    private void sendConfigParameterChanges(String userId, String appName, Map<String, String> values, long version) {
+        sendUpdateMessage(toMessage(userId, appName, values, version));
+    }
+
+    /**
+     * Sends the changes in the calling thread, which must be allowed to block, without coalescing.
+     *
+     * @return whether the message was sent
+     */
+    public boolean sendConfigParameterChangesNow(String userId, String appName, Map<String, String> values, long version) {
+        return send(CONFIG_UPDATE_BINDING, toMessage(userId, appName, values, version));
+    }
+
+    private Message<String> toMessage(String userId, String appName, Map<String, String> values, long version) {
+        String payload = valuesEnabled ? toPayload(values) : "";
+        MessageBuilder<String> builder = MessageBuilder.withPayload(payload)
+                .setHeader(HEADER_USER_ID, userId)
+                .setHeader(HEADER_APP_NAME, appName)
+                .setHeader(HEADER_PARAMETER_NAMES, new ArrayList<>(values.keySet()))
+                .setHeader(HEADER_VERSION, version)
+                .setHeader(HEADER_VALUES_INCLUDED, !payload.isEmpty());
+        if (values.size() == 1) {
+            builder.setHeader(HEADER_PARAMETER_NAME, values.keySet().iterator().next());
+        }
+        return builder.build();
+    }
+
+    // empty above the max size, the consumers read the parameters instead
+    private String toPayload(Map<String, String> values) {
+        try {
+            String payload = objectMapper.writeValueAsString(values);
+            return payload.length() <= valuesMaxSize ? payload : "";
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Failed to serialize the values of the changed parameters", e);
+            return "";
+        }
     }
 }
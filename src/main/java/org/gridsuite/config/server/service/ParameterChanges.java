@@ -0,0 +1,18 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parameter names changed together for a user and an application, as received from a config.update message.
+ *
+ * @param values the new values by name when carried by the message (null for a deleted parameter), or null
+ */
+public record ParameterChanges(String userId, String appName, List<String> names, Map<String, String> values) {
+}
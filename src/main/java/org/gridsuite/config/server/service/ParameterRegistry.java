@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import org.gridsuite.config.server.service.ParameterRegistryProperties.ParameterDefinition;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Registry of the parameter names allowed per application, with the type and the maximum size of their values, held
+ * in memory from the configuration. When enabled, the writes of the other names or of invalid values are rejected
+ * with a 400 status, and the parameters whose names are no longer registered are removed in the background.
+ * Only the applications listed in the registry are constrained, the parameters of the other applications are
+ * neither validated nor removed, so that an application missing from the configuration doesn't lose its parameters.
+ */
+@Service
+public class ParameterRegistry {
+
+    private final boolean enabled;
+
+    private final Map<String, Map<String, ParameterDefinition>> applications;
+
+    public ParameterRegistry(ParameterRegistryProperties properties) {
+        this.enabled = properties.enabled();
+        this.applications = Map.copyOf(properties.applications());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true if the names of the application are constrained by the registry
+     */
+    public boolean isRegisteredApplication(String appName) {
+        return enabled && applications.containsKey(appName);
+    }
+
+    /**
+     * @return true if the name is registered for the application, or the application not constrained
+     */
+    public boolean isRegistered(String appName, String name) {
+        return !isRegisteredApplication(appName) || applications.get(appName).containsKey(name);
+    }
+
+    /**
+     * Checks the written values against the registry, to be run before writing them.
+     *
+     * @return an error with a 400 status for the first invalid value, or empty
+     */
+    public Mono<Void> validate(String appName, Map<String, String> values) {
+        if (!isRegisteredApplication(appName)) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> values.forEach((name, value) -> validate(appName, name, value)));
+    }
+
+    private void validate(String appName, String name, String value) {
+        ParameterDefinition definition = applications.get(appName).get(name);
+        if (definition == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parameter '" + name + "' isn't registered for the application '" + appName + "'");
+        }
+        if (definition.maxSize() != null && value.length() > definition.maxSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Value of the parameter '" + name + "' longer than " + definition.maxSize() + " characters");
+        }
+        if (!hasType(value, definition)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Value of the parameter '" + name + "' isn't of type " + definition.type());
+        }
+    }
+
+    private static boolean hasType(String value, ParameterDefinition definition) {
+        return switch (definition.type()) {
+            case STRING -> true;
+            case BOOLEAN -> "true".equals(value) || "false".equals(value);
+            case INTEGER -> isParsable(value, Long::parseLong);
+            case NUMBER -> isParsable(value, Double::parseDouble);
+        };
+    }
+
+    private static boolean isParsable(String value, Consumer<String> parser) {
+        try {
+            parser.accept(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The parameter names allowed per application, under config.registry.applications.&lt;appName&gt;.&lt;name&gt;.
+ *
+ * @param enabled whether the written names are validated and the unregistered ones compacted
+ * @param compactionInterval the interval between two runs of the compaction of the unregistered parameters
+ */
+@ConfigurationProperties("config.registry")
+public record ParameterRegistryProperties(boolean enabled, Duration compactionInterval, Map<String, Map<String, ParameterDefinition>> applications) {
+
+    public enum ParameterType {
+        STRING,
+        BOOLEAN,
+        INTEGER,
+        NUMBER
+    }
+
+    /**
+     * @param type the type of the values, STRING by default
+     * @param maxSize the maximum number of characters of the values, or null without maximum
+     */
+    public record ParameterDefinition(ParameterType type, Integer maxSize) {
+
+        public ParameterDefinition {
+            type = type != null ? type : ParameterType.STRING;
+        }
+    }
+
+    public ParameterRegistryProperties {
+        compactionInterval = compactionInterval != null ? compactionInterval : Duration.ofHours(1);
+        applications = applications != null ? applications : Map.of();
+    }
+}
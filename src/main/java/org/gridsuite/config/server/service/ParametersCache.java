@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of the parameter sets of a user, per application (or for all the applications).
+ * Entries are evicted locally on write, and on every node when the corresponding config.update message is received
+ * by the {@link ConsumerService}.
+ * The concurrent loads of the same set share a single in-flight load, even with the cache disabled. A load isn't
+ * shared anymore once the set is evicted, so that the reads following a write never get a set loaded before it.
+ */
+@Service
+public class ParametersCache {
+
+    private record CacheKey(String userId, String appName) {
+    }
+
+    private final boolean enabled;
+
+    private final Cache<CacheKey, CachedParameters> cache;
+
+    // the in-flight load of each set, removed by its evictions: a load only caches its set while still mapped, so that
+    // a set loaded concurrently with a write isn't cached, without preventing the caching of the other sets
+    private final Map<CacheKey, Mono<CachedParameters>> loads = new ConcurrentHashMap<>();
+
+    public ParametersCache(@Value("${config.cache.enabled:true}") boolean enabled,
+                           @Value("${config.cache.maximum-size:10000}") long maximumSize,
+                           @Value("${config.cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /**
+     * @param appName the application name, or null for the parameters of all the applications
+     */
+    public Mono<CachedParameters> get(String userId, String appName, Supplier<Mono<CachedParameters>> loader) {
+        CacheKey key = new CacheKey(userId, appName);
+        return Mono.defer(() -> {
+            CachedParameters parameters = enabled ? cache.getIfPresent(key) : null;
+            if (parameters != null) {
+                return Mono.just(parameters);
+            }
+            return loads.computeIfAbsent(key, k -> load(k, loader));
+        });
+    }
+
+    private Mono<CachedParameters> load(CacheKey key, Supplier<Mono<CachedParameters>> loader) {
+        AtomicReference<Mono<CachedParameters>> load = new AtomicReference<>();
+        // the load is cancelled when all its subscribers cancel, its errors are not kept for the next reads
+        load.set(loader.get()
+                .doOnNext(loaded -> {
+                    if (enabled) {
+                        // atomic with the removal of the load by an eviction, which then invalidates the cached set
+                        loads.computeIfPresent(key, (k, current) -> {
+                            if (current == load.get()) {
+                                cache.put(key, loaded);
+                            }
+                            return current;
+                        });
+                    }
+                })
+                .doFinally(signal -> loads.remove(key, load.get()))
+                .share());
+        return load.get();
+    }
+
+    /**
+     * Evicts the parameters of the application and the parameters of all the applications of the user.
+     */
+    public void evict(String userId, String appName) {
+        // the loads are removed before the invalidations, see load
+        CacheKey key = new CacheKey(userId, appName);
+        CacheKey allApplicationsKey = new CacheKey(userId, null);
+        loads.remove(key);
+        loads.remove(allApplicationsKey);
+        cache.invalidate(key);
+        cache.invalidate(allApplicationsKey);
+    }
+
+    public void evictAll() {
+        loads.clear();
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.gridsuite.config.server.repository.ParameterDocumentsRepository;
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.repository.ParametersRepositoryCustomImpl;
+import org.gridsuite.config.server.repository.ParametersStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+
+/**
+ * Routes the reads of the parameters to an optional read-only replica, configured with config.r2dbc.replica.url, the
+ * writes staying on the primary database. The replica lags behind the primary: the reads of a user are routed to the
+ * primary during a window after each write of this user, on this instance or received on config.update from the
+ * other instances, so that a user reads its own writes and no stale set is cached after an eviction. The window must
+ * be longer than the replication lag.
+ * The replica connection factory isn't a bean, which would replace the one auto-configured for the primary: a pooled
+ * factory is obtained with a r2dbc:pool: URL.
+ * The windows are measured with the Ticker bean when there is one, for the tests, else with the system ticker.
+ */
+@Service
+public class ReadReplicaRouting {
+
+    // the recent writers above this number are forgotten, their reads may then be stale
+    private static final long MAX_RECENT_WRITERS = 100_000;
+
+    private final ParametersStore primary;
+
+    private final ParametersStore replica;
+
+    private final ConnectionFactory replicaConnectionFactory;
+
+    private final Duration window;
+
+    private final Ticker ticker;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    // the parameters of several users were written, all the reads go to the primary until the end of the window
+    private volatile long allUsersWriteNanos;
+
+    public ReadReplicaRouting(@Value("${config.r2dbc.replica.url:}") String url,
+                              @Value("${config.r2dbc.replica.username:}") String username,
+                              @Value("${config.r2dbc.replica.password:}") String password,
+                              @Value("${config.r2dbc.replica.read-your-writes-window:PT5S}") Duration window,
+                              @Value("${config.storage.mode:rows}") String storageMode,
+                              @Value("${config.storage.compression-threshold:1024}") int compressionThreshold,
+                              ParametersStore primary, ParametersRepository parametersRepository, ObjectMapper objectMapper,
+                              ObjectProvider<Ticker> ticker) {
+        this.primary = primary;
+        this.window = window;
+        this.ticker = ticker.getIfAvailable(Ticker::systemTicker);
+        this.allUsersWriteNanos = this.ticker.read() - window.toNanos();
+        this.recentWriters = Caffeine.newBuilder()
+                .ticker(this.ticker)
+                .maximumSize(MAX_RECENT_WRITERS)
+                .expireAfterWrite(window)
+                .build();
+        if (url.isEmpty()) {
+            this.replicaConnectionFactory = null;
+            this.replica = null;
+            return;
+        }
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (!password.isEmpty()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        this.replicaConnectionFactory = ConnectionFactories.get(options.build());
+        R2dbcEntityTemplate entityTemplate = new R2dbcEntityTemplate(replicaConnectionFactory);
+        // the same storage as the primary, on the replica
+        this.replica = "document".equals(storageMode)
+                ? new ParameterDocumentsRepository(entityTemplate.getDatabaseClient(), parametersRepository, objectMapper,
+                        TransactionalOperator.create(new R2dbcTransactionManager(replicaConnectionFactory)))
+                : new R2dbcRepositoryFactory(entityTemplate).getRepository(ParametersRepository.class,
+                RepositoryFragments.just(new ParametersRepositoryCustomImpl(entityTemplate.getDatabaseClient(), entityTemplate, compressionThreshold)));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (replicaConnectionFactory instanceof Disposable pool) {
+            pool.dispose();
+        }
+    }
+
+    /**
+     * @return the storage to read the parameters of a user from
+     */
+    public ParametersStore forReads(String userId) {
+        if (replica == null || isAllUsersWindow() || recentWriters.getIfPresent(userId) != null) {
+            return primary;
+        }
+        return replica;
+    }
+
+    /**
+     * @return the storage to read the parameters of several users from
+     */
+    public ParametersStore forReadsOfAllUsers() {
+        return replica == null || isAllUsersWindow() ? primary : replica;
+    }
+
+    public void onWrite(String userId) {
+        if (replica != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public void onWriteOfAllUsers() {
+        if (replica != null) {
+            allUsersWriteNanos = ticker.read();
+        }
+    }
+
+    private boolean isAllUsersWindow() {
+        return ticker.read() - allUsersWriteNanos < window.toNanos();
+    }
+}
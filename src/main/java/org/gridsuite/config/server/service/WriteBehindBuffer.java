@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server.service;
+
+import org.gridsuite.config.server.repository.ParametersStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Opt-in write-behind mode for the parameters written very often: their writes only update this buffer, the repeated
+ * writes of a parameter are coalesced (last write wins), and the buffer is written to the database periodically and on
+ * shutdown. The cache is evicted and the config.update message is sent (or recorded in the outbox) when the values are
+ * written.
+ * The buffered values are only visible on this instance until they are written.
+ */
+@Service
+public class WriteBehindBuffer implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private record BufferKey(String userId, String appName) {
+    }
+
+    private final Set<String> appNames;
+
+    private final Set<String> parameterNames;
+
+    private final Duration flushInterval;
+
+    private final Duration shutdownTimeout;
+
+    private final ParametersStore parametersRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ParametersCache parametersCache;
+
+    private final ReadReplicaRouting readReplicaRouting;
+
+    private final NotificationService notificationService;
+
+    private final NotificationOutbox notificationOutbox;
+
+    // by user id then application name, the maps of a user are only accessed while mapped, in compute calls
+    private final Map<String, Map<String, Map<String, String>>> pendingWrites = new ConcurrentHashMap<>();
+
+    // the last flush of each application of a user, waiting for the previous ones, until they are all complete
+    private final Map<BufferKey, Mono<Void>> flushes = new ConcurrentHashMap<>();
+
+    private final Scheduler flushScheduler = Schedulers.newSingle("config-write-behind");
+
+    private Disposable periodicFlush;
+
+    private volatile boolean running;
+
+    public WriteBehindBuffer(@Value("${config.write-behind.app-names:}") Set<String> appNames,
+                             @Value("${config.write-behind.parameter-names:}") Set<String> parameterNames,
+                             @Value("${config.write-behind.flush-interval:PT1S}") Duration flushInterval,
+                             @Value("${config.write-behind.shutdown-timeout:PT10S}") Duration shutdownTimeout,
+                             ParametersStore parametersRepository, TransactionalOperator transactionalOperator,
+                             ParametersCache parametersCache, ReadReplicaRouting readReplicaRouting, NotificationService notificationService,
+                             NotificationOutbox notificationOutbox) {
+        this.appNames = appNames;
+        this.parameterNames = parameterNames;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        this.parametersRepository = parametersRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.parametersCache = parametersCache;
+        this.readReplicaRouting = readReplicaRouting;
+        this.notificationService = notificationService;
+        this.notificationOutbox = notificationOutbox;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!appNames.isEmpty() || !parameterNames.isEmpty()) {
+            periodicFlush = Flux.interval(flushInterval, flushInterval, flushScheduler)
+                    .onBackpressureDrop()
+                    .concatMap(i -> flush(), 1)
+                    .subscribe();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (periodicFlush != null) {
+            periodicFlush.dispose();
+        }
+        flush().block(shutdownTimeout);
+        flushScheduler.dispose();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // written before the outbox and the notifications are stopped
+    @Override
+    public int getPhase() {
+        return NotificationService.NOTIFICATIONS_PHASE + 2;
+    }
+
+    public boolean isBuffered(String appName, String name) {
+        return appNames.contains(appName) || parameterNames.contains(name);
+    }
+
+    public void write(String userId, String appName, String name, String value) {
+        pendingWrites.compute(userId, (key, pending) -> {
+            Map<String, Map<String, String>> applications = pending != null ? pending : new HashMap<>();
+            applications.computeIfAbsent(appName, a -> new LinkedHashMap<>()).put(name, value);
+            return applications;
+        });
+    }
+
+    /**
+     * Drops the buffered values of parameters to be written or deleted directly in the database, so that they don't
+     * overwrite the newer values, and waits for the flush in progress of the application, which may be writing older
+     * values of the same parameters: the direct write is to be made once the returned Mono completes.
+     */
+    public Mono<Void> discard(String userId, String appName, Collection<String> names) {
+        return Mono.defer(() -> {
+            removePendingWrites(userId, appName, values -> names.forEach(values::remove));
+            Mono<Void> flush = flushes.get(new BufferKey(userId, appName));
+            return flush != null ? flush.onErrorResume(e -> Mono.empty()) : Mono.empty();
+        });
+    }
+
+    private void removePendingWrites(String userId, String appName, Consumer<Map<String, String>> remove) {
+        pendingWrites.computeIfPresent(userId, (key, applications) -> {
+            Map<String, String> values = applications.get(appName);
+            if (values != null) {
+                remove.accept(values);
+                if (values.isEmpty()) {
+                    applications.remove(appName);
+                }
+            }
+            return applications.isEmpty() ? null : applications;
+        });
+    }
+
+    /**
+     * @return the buffered values of the parameters of the application, by name
+     */
+    public Map<String, String> getPendingWrites(String userId, String appName) {
+        Map<String, String> values = new LinkedHashMap<>();
+        pendingWrites.computeIfPresent(userId, (key, applications) -> {
+            values.putAll(applications.getOrDefault(appName, Map.of()));
+            return applications;
+        });
+        return values;
+    }
+
+    private List<String> getPendingApplications(String userId) {
+        List<String> applications = new ArrayList<>();
+        pendingWrites.computeIfPresent(userId, (key, pending) -> {
+            applications.addAll(pending.keySet());
+            return pending;
+        });
+        return applications;
+    }
+
+    /**
+     * Writes the buffered values of all the users.
+     */
+    public Mono<Void> flush() {
+        return Flux.fromIterable(pendingWrites.keySet())
+                .concatMap(userId -> Flux.fromIterable(getPendingApplications(userId)).map(appName -> new BufferKey(userId, appName)))
+                .concatMap(key -> flush(key).onErrorResume(e -> {
+                    // kept in the buffer and written again on the next flush
+                    LOGGER.error("Failed to write the buffered parameters of user {} for application {}", key.userId(), key.appName(), e);
+                    return Mono.empty();
+                }))
+                .then();
+    }
+
+    /**
+     * Writes the buffered values of all the applications of a user.
+     */
+    public Mono<Void> flush(String userId) {
+        return Mono.defer(() -> Flux.fromIterable(getPendingApplications(userId))
+                .concatMap(appName -> flush(new BufferKey(userId, appName)))
+                .then());
+    }
+
+    /**
+     * The flushes of an application are serialized: each one is run after the previous ones, and runs to completion
+     * even when its subscribers cancel, so that the discards can wait for it.
+     */
+    private Mono<Void> flush(BufferKey key) {
+        return Mono.defer(() -> {
+            AtomicReference<Mono<Void>> flush = new AtomicReference<>();
+            return flushes.compute(key, (k, previous) -> {
+                flush.set((previous != null ? previous.onErrorResume(e -> Mono.empty()) : Mono.<Void>empty())
+                        .then(Mono.defer(() -> write(key)))
+                        .doFinally(signal -> flushes.remove(key, flush.get()))
+                        .cache());
+                return flush.get();
+            });
+        });
+    }
+
+    private Mono<Void> write(BufferKey key) {
+        Map<String, String> values = getPendingWrites(key.userId(), key.appName());
+        if (values.isEmpty()) {
+            return Mono.empty();
+        }
+        return parametersRepository.upsertAll(key.userId(), key.appName(), values)
+                .flatMap(version -> notificationOutbox.record(key.userId(), key.appName(), values, version).thenReturn(version))
+                .as(transactionalOperator::transactional)
+                .doOnNext(version -> {
+                    readReplicaRouting.onWrite(key.userId());
+                    parametersCache.evict(key.userId(), key.appName());
+                    // removed only once written so that the reads never miss them, unless written again meanwhile
+                    removePendingWrites(key.userId(), key.appName(), pending -> values.forEach(pending::remove));
+                    if (!notificationOutbox.isEnabled()) {
+                        notificationService.emitConfigParameterChanges(key.userId(), key.appName(), values, version);
+                    }
+                })
+                .then();
+    }
+}
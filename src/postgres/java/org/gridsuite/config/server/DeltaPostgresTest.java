@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.dto.ParameterChangeInfos;
+import org.gridsuite.config.server.dto.ParametersDeltaInfos;
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The delta synchronization on PostgreSQL, whose cursors are transaction id watermarks.
+ */
+@AutoConfigureWebTestClient
+@EnableWebFlux
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class})
+class DeltaPostgresTest extends AbstractPostgresTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @Autowired
+    private ParameterTombstonesPurge parameterTombstonesPurge;
+
+    @AfterEach
+    void tearDown() {
+        parametersRepository.deleteAll().block();
+        databaseClient.sql("DELETE FROM parameters_tombstones").then().block();
+        databaseClient.sql("UPDATE parameters_tombstones_horizon SET horizon = 0").then().block();
+        parametersCache.evictAll();
+        assertNull(output.receive(1000), "Should not be any messages");
+    }
+
+    private void updateParameter(String name, String value) {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/{name}?value={value}", name, value)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private ParametersDeltaInfos getParametersDelta(long since) {
+        return webTestClient.get()
+                .uri("/v1/parameters/changes?since={since}", since)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParametersDeltaInfos.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    void testParametersDelta() {
+        updateParameter("key1", "value1");
+        assertNotNull(output.receive(1000));
+        ParametersDeltaInfos delta = getParametersDelta(0);
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key1", "value1")), delta.getChanges());
+        long sequence = delta.getSequence();
+
+        updateParameter("key2", "value2");
+        assertNotNull(output.receive(1000));
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/key1")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        delta = getParametersDelta(sequence);
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key2", "value2"), new ParameterChangeInfos("foo", "key1", null)), delta.getChanges());
+        assertFalse(delta.isReset());
+        assertTrue(delta.getSequence() > sequence);
+
+        assertEquals(List.of(), getParametersDelta(delta.getSequence()).getChanges());
+
+        // a cursor ahead of the transactions can't have been returned by a delta
+        delta = getParametersDelta(Long.MAX_VALUE);
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key2", "value2")), delta.getChanges());
+        assertTrue(delta.isReset());
+        assertEquals(List.of(), getParametersDelta(delta.getSequence()).getChanges());
+    }
+
+    @Test
+    void testChangesOfRunningTransactionsNotSkipped() throws Exception {
+        long sequence = getParametersDelta(0).getSequence();
+
+        // a transaction started before another one, and committed after it
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        CompletableFuture<Void> commit = new CompletableFuture<>();
+        CompletableFuture<Long> slowWrite = parametersRepository.upsert("userId", "foo", "slowKey", "slowValue")
+                .doOnSuccess(changeSeq -> written.complete(null))
+                .flatMap(changeSeq -> Mono.fromFuture(commit).thenReturn(changeSeq))
+                .as(transactionalOperator::transactional)
+                .toFuture();
+        written.get(5, TimeUnit.SECONDS);
+        parametersRepository.upsert("userId", "foo", "fastKey", "fastValue").block();
+
+        // the committed change is delayed until the older transaction completes
+        ParametersDeltaInfos delta = getParametersDelta(sequence);
+        assertEquals(List.of(), delta.getChanges());
+
+        commit.complete(null);
+        slowWrite.get(5, TimeUnit.SECONDS);
+        delta = getParametersDelta(delta.getSequence());
+        assertEquals(Set.of(new ParameterChangeInfos("foo", "slowKey", "slowValue"), new ParameterChangeInfos("foo", "fastKey", "fastValue")),
+                new HashSet<>(delta.getChanges()));
+    }
+
+    @Test
+    void testParametersDeltaAfterPurge() {
+        updateParameter("key1", "value1");
+        assertNotNull(output.receive(1000));
+        updateParameter("key2", "value2");
+        assertNotNull(output.receive(1000));
+        long sequence = getParametersDelta(0).getSequence();
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/key1")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        assertEquals(1, parameterTombstonesPurge.purge(OffsetDateTime.now().plusMinutes(1)).block());
+        ParametersDeltaInfos delta = getParametersDelta(sequence);
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key2", "value2")), delta.getChanges());
+        assertTrue(delta.isReset());
+
+        delta = getParametersDelta(delta.getSequence());
+        assertEquals(List.of(), delta.getChanges());
+        assertFalse(delta.isReset());
+    }
+}
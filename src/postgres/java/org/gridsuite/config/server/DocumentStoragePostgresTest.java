@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.dto.ParameterChangeInfos;
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.dto.ParametersDeltaInfos;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.gridsuite.config.server.service.NotificationService.HEADER_PARAMETER_NAMES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The jsonb queries of the document storage on PostgreSQL.
+ */
+@AutoConfigureWebTestClient
+@EnableWebFlux
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class},
+        properties = {
+            "config.storage.mode=document",
+            "config.storage.migration.enabled=false"
+        })
+class DocumentStoragePostgresTest extends AbstractPostgresTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @AfterEach
+    void tearDown() {
+        databaseClient.sql("DELETE FROM parameters_documents").then().block();
+        databaseClient.sql("DELETE FROM parameters_tombstones").then().block();
+        parametersCache.evictAll();
+        assertNull(output.receive(1000), "Should not be any messages");
+    }
+
+    private List<ParameterInfos> getParameters() {
+        return webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .returnResult().getResponseBody();
+    }
+
+    private ParametersDeltaInfos getParametersDelta(long since) {
+        return webTestClient.get()
+                .uri("/v1/parameters/changes?since={since}", since)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParametersDeltaInfos.class)
+                .returnResult().getResponseBody();
+    }
+
+    private long deleteParameters(String namePattern) {
+        return webTestClient.delete()
+                .uri("/v1/parameters?userId=userId&namePattern={namePattern}", namePattern)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    void testDocumentStorage() {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("key1", "value1", "key2", "value2"))
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        // merged into the stored document
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/key1?value=newValue1")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        long sequence = getParametersDelta(0).getSequence();
+
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/key2")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        assertEquals(List.of(new ParameterInfos("key1", "newValue1")), getParameters());
+
+        assertEquals(Set.of(new ParameterChangeInfos("foo", "key1", "newValue1"), new ParameterChangeInfos("foo", "key2", null)),
+                new HashSet<>(getParametersDelta(sequence).getChanges()));
+    }
+
+    @Test
+    void testDeleteParameters() {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("key1", "value1", "legacyKey1", "value1", "legacyKey2", "value2"))
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        long sequence = getParametersDelta(0).getSequence();
+
+        // only the keys removed by the update are returned, recorded and notified
+        assertEquals(2L, deleteParameters("legacy%"));
+        assertEquals(Set.of("legacyKey1", "legacyKey2"), new HashSet<>((List<?>) output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAMES)));
+        assertEquals(List.of(new ParameterInfos("key1", "value1")), getParameters());
+        assertEquals(List.of("legacyKey1", "legacyKey2"), databaseClient.sql("SELECT name FROM parameters_tombstones WHERE user_id = 'userId' ORDER BY name")
+                .map(row -> row.get("name", String.class))
+                .all()
+                .collectList()
+                .block());
+
+        ParametersDeltaInfos delta = getParametersDelta(sequence);
+        assertEquals(Set.of(new ParameterChangeInfos("foo", "key1", "value1"), new ParameterChangeInfos("foo", "legacyKey1", null),
+                new ParameterChangeInfos("foo", "legacyKey2", null)), new HashSet<>(delta.getChanges()));
+
+        assertEquals(0L, deleteParameters("legacy%"));
+        assertEquals(List.of(), getParametersDelta(delta.getSequence()).getChanges());
+    }
+}
@@ -6,8 +6,23 @@
  */
 package org.gridsuite.config.server;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.gridsuite.config.server.dto.ParameterChangeInfos;
 import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.dto.ParametersDeltaInfos;
+import org.gridsuite.config.server.dto.ParametersSearchInfos;
+import org.gridsuite.config.server.dto.UserParametersInfos;
+import org.gridsuite.config.server.repository.DefaultParametersRepository;
+import org.gridsuite.config.server.repository.ParameterTombstoneEntity;
 import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.service.CachedParameters;
+import org.gridsuite.config.server.service.DefaultParametersService;
+import org.gridsuite.config.server.service.ParametersCache;
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeMatcher;
 import org.junit.jupiter.api.AfterEach;
@@ -15,21 +30,49 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
 import org.springframework.cloud.stream.binder.test.OutputDestination;
 import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.config.EnableWebFlux;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.gridsuite.config.server.service.MetricsService.*;
 import static org.gridsuite.config.server.service.NotificationService.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author Abdelsalem Hedhili <abdelsalem.hedhili at rte-france.com>
@@ -45,12 +88,44 @@ class ConfigTest {
     @Autowired
     private OutputDestination output;
 
+    @Autowired
+    private InputDestination input;
+
     @Autowired
     private ParametersRepository parametersRepository;
 
+    @Autowired
+    private DefaultParametersRepository defaultParametersRepository;
+
+    @Autowired
+    private DefaultParametersService defaultParametersService;
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @Autowired
+    private ParameterTombstonesPurge parameterTombstonesPurge;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @AfterEach
     void setup() {
         parametersRepository.deleteAll().block();
+        entityTemplate.delete(ParameterTombstoneEntity.class).all().block();
+        databaseClient.sql("UPDATE parameters_tombstones_horizon SET horizon = 0").then().block();
+        defaultParametersRepository.deleteAll().block();
+        defaultParametersService.reload();
+        parametersCache.evictAll();
     }
 
     @Test
@@ -390,23 +465,910 @@ class ConfigTest {
                 .expectBodyList(ParameterInfos.class)
                 .value(new MatcherConfigParamList(paramInfosListUpdated));
 
-        // assert that the broker message has been sent to notify parameter change
+        // assert that a single broker message has been sent to notify all the parameter changes
         message = output.receive(1000);
         assertEquals("", new String(message.getPayload()));
         headers = message.getHeaders();
         assertEquals("userId", headers.get(HEADER_USER_ID));
         assertEquals("foo", headers.get(HEADER_APP_NAME));
-        assertEquals("testKey2", headers.get(HEADER_PARAMETER_NAME));
+        assertNull(headers.get(HEADER_PARAMETER_NAME));
+        assertEquals(Set.of("testKey1", "testKey2"), new HashSet<>((List<?>) headers.get(HEADER_PARAMETER_NAMES)));
 
-        // assert that the broker message has been sent to notify parameter change
-        message = output.receive(1000);
-        assertEquals("", new String(message.getPayload()));
-        headers = message.getHeaders();
-        assertEquals("userId", headers.get(HEADER_USER_ID));
-        assertEquals("foo", headers.get(HEADER_APP_NAME));
-        assertEquals("testKey1", headers.get(HEADER_PARAMETER_NAME));
+        assertNull(output.receive(1000));
+    }
+
+    @Test
+    void testUpdateParametersRollback() {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < 150; i++) {
+            parameters.put("testKey" + i, "testValue" + i);
+        }
+        // name longer than the column, fails in the second batch
+        parameters.put("x".repeat(300), "testValue");
+
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(parameters)
+                .exchange()
+                .expectStatus().is5xxServerError();
+
+        //the first batch has been rolled back
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .isEqualTo(List.of());
+
+        assertNull(output.receive(1000));
+    }
+
+    @Test
+    void testDefaultParameters() {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/userKey?value=userValue")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("userKey", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+
+        //load the parameters in the cache, before setting the defaults
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .value(new MatcherConfigParamList(List.of(new ParameterInfos("userKey", "userValue"))));
+
+        webTestClient.put()
+                .uri("/v1/defaults/parameters/globalKey?value=globalValue")
+                .exchange()
+                .expectStatus().isOk();
+        //sent on config.defaults.update, the messages of config.update being for a user
+        Message<byte[]> message = output.receive(1000, "config.defaults.update");
+        MessageHeaders headers = message.getHeaders();
+        assertNull(headers.get(HEADER_USER_ID));
+        assertNull(headers.get(HEADER_APP_NAME));
+        assertEquals("globalKey", headers.get(HEADER_PARAMETER_NAME));
+
+        webTestClient.put()
+                .uri("/v1/defaults/applications/foo/parameters/userKey?value=fooDefault")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("foo", output.receive(1000, "config.defaults.update").getHeaders().get(HEADER_APP_NAME));
+
+        webTestClient.put()
+                .uri("/v1/defaults/applications/foo/parameters/appKey?value=fooValue")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("appKey", output.receive(1000, "config.defaults.update").getHeaders().get(HEADER_PARAMETER_NAME));
+
+        webTestClient.put()
+                .uri("/v1/defaults/applications/foo/parameters/appKey?value=fooValue2")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("appKey", output.receive(1000, "config.defaults.update").getHeaders().get(HEADER_PARAMETER_NAME));
+
+        webTestClient.get()
+                .uri("/v1/defaults/applications/foo/parameters")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .value(new MatcherConfigParamList(List.of(new ParameterInfos("appKey", "fooValue2"), new ParameterInfos("userKey", "fooDefault"))));
+
+        //the values of the user override the defaults of the application, which override the global defaults
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .value(new MatcherConfigParamList(List.of(new ParameterInfos("userKey", "userValue"), new ParameterInfos("appKey", "fooValue2"),
+                        new ParameterInfos("globalKey", "globalValue"))));
+
+        webTestClient.get()
+                .uri("/v1/applications/bar/parameters/globalKey")
+                .header("userId", "otherUserId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParameterInfos.class)
+                .value(new MatcherConfigParam(new ParameterInfos("globalKey", "globalValue")));
+
+        webTestClient.get()
+                .uri("/v1/parameters")
+                .header("userId", "otherUserId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .value(new MatcherConfigParamList(List.of(new ParameterInfos("appKey", "fooValue2"), new ParameterInfos("userKey", "fooDefault"),
+                        new ParameterInfos("globalKey", "globalValue"))));
+
+        webTestClient.delete()
+                .uri("/v1/defaults/parameters/globalKey")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("globalKey", output.receive(1000, "config.defaults.update").getHeaders().get(HEADER_PARAMETER_NAME));
+
+        webTestClient.get()
+                .uri("/v1/applications/bar/parameters/globalKey")
+                .header("userId", "otherUserId")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        //deleting a missing default doesn't notify
+        webTestClient.delete()
+                .uri("/v1/defaults/parameters/globalKey")
+                .exchange()
+                .expectStatus().isOk();
+
+        //the defaults changed by another instance are reloaded
+        defaultParametersRepository.deleteAll().block();
+        input.send(MessageBuilder.withPayload("")
+                .setHeader(HEADER_APP_NAME, "foo")
+                .setHeader(HEADER_PARAMETER_NAME, "appKey")
+                .build(), "config.defaults.update");
+
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .value(new MatcherConfigParamList(List.of(new ParameterInfos("userKey", "userValue"))));
+
+        assertNull(output.receive(1000));
+        assertNull(output.receive(1000, "config.defaults.update"));
+    }
+
+    @Test
+    void testConcurrentDefaultUpsertsKeepASingleRow() {
+        Flux.range(0, 20)
+                .flatMap(i -> webTestClient.put()
+                        .uri("/v1/defaults/applications/foo/parameters/appKey?value=value" + i)
+                        .exchange()
+                        .returnResult(Void.class)
+                        .getResponseBody()
+                        .then(Mono.just(i)))
+                .blockLast();
+        IntStream.range(0, 20).forEach(i -> assertNotNull(output.receive(1000, "config.defaults.update")));
+
+        assertEquals(1L, defaultParametersRepository.findAllByAppNameOrderByName("foo").count().block());
+    }
+
+    @Test
+    void testCacheEvictedByConfigUpdateMessage() {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/testKey?value=testValue")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("testKey", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+
+        //load the parameters in the cache
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .value(new MatcherConfigParamList(List.of(new ParameterInfos("testKey", "testValue"))));
+
+        //simulate a write done by another instance
+        parametersRepository.findByUserIdAndAppNameAndName("userId", "foo", "testKey")
+                .flatMap(entity -> {
+                    entity.setValue("otherValue");
+                    return parametersRepository.save(entity);
+                })
+                .block();
+
+        //the cached value is still returned
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters/testKey")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParameterInfos.class)
+                .value(new MatcherConfigParam(new ParameterInfos("testKey", "testValue")));
+
+        //the notification of the other instance evicts the cache
+        input.send(MessageBuilder.withPayload("")
+                .setHeader(HEADER_USER_ID, "userId")
+                .setHeader(HEADER_APP_NAME, "foo")
+                .setHeader(HEADER_PARAMETER_NAME, "testKey")
+                .build(), "config.update");
+
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters/testKey")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParameterInfos.class)
+                .value(new MatcherConfigParam(new ParameterInfos("testKey", "otherValue")));
+
+        assertNull(output.receive(1000));
+    }
+
+    @Test
+    void testConcurrentUpsertsKeepASingleRow() {
+        Flux.range(0, 20)
+                .flatMap(i -> parametersRepository.upsert("userId", "foo", "testKey", "value" + i))
+                .blockLast();
+
+        assertEquals(1L, parametersRepository.findAllByUserIdAndAppName("userId", "foo").count().block());
+        assertEquals(1L, parametersRepository.findAllByUserIdAndAppName("userId", "foo")
+                .filter(p -> p.getValue().startsWith("value"))
+                .count().block());
+    }
+
+    @Test
+    void testETag() {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/testKey?value=testValue")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        output.receive(1000);
+
+        String etag = webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(ParameterInfos.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/testKey?value=updatedValue")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        output.receive(1000);
+
+        // the version changed with the update
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, value -> assertNotEquals(etag, value))
+                .expectBodyList(ParameterInfos.class)
+                .value(new MatcherConfigParamList(List.of(new ParameterInfos("testKey", "updatedValue"))));
 
         assertNull(output.receive(1000));
     }
 
+    @Test
+    void testBinaryFormats() throws IOException {
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .bodyValue(cborMapper.writeValueAsBytes(Map.of("key1", "value1")))
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .contentType(smile)
+                .bodyValue(smileMapper.writeValueAsBytes(Map.of("key2", "value2")))
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        List<ParameterInfos> expected = List.of(new ParameterInfos("key1", "value1"), new ParameterInfos("key2", "value2"));
+        TypeReference<List<ParameterInfos>> listType = new TypeReference<>() { };
+        for (String uri : List.of("/v1/applications/foo/parameters", "/v1/parameters")) {
+            byte[] cbor = webTestClient.get()
+                    .uri(uri)
+                    .header("userId", "userId")
+                    .accept(MediaType.APPLICATION_CBOR)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                    .expectHeader().exists(HttpHeaders.ETAG)
+                    .expectBody(byte[].class)
+                    .returnResult().getResponseBody();
+            assertEquals(new HashSet<>(expected), new HashSet<>(cborMapper.readValue(cbor, listType)));
+            byte[] smileBody = webTestClient.get()
+                    .uri(uri)
+                    .header("userId", "userId")
+                    .accept(smile)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(smile)
+                    .expectBody(byte[].class)
+                    .returnResult().getResponseBody();
+            assertEquals(new HashSet<>(expected), new HashSet<>(smileMapper.readValue(smileBody, listType)));
+
+            // JSON is preferred when any media type is accepted
+            webTestClient.get()
+                    .uri(uri)
+                    .header("userId", "userId")
+                    .accept(MediaType.ALL)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                    .expectBodyList(ParameterInfos.class)
+                    .value(new MatcherConfigParamList(expected));
+        }
+
+        // the binary representation has its own ETag
+        String etag = webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ParameterInfos.class)
+                .getResponseHeaders().getETag();
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk();
+
+        byte[] cbor = webTestClient.get()
+                .uri("/v1/applications/foo/parameters/key1")
+                .header("userId", "userId")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+        assertEquals(new ParameterInfos("key1", "value1"), cborMapper.readValue(cbor, ParameterInfos.class));
+
+        assertNull(output.receive(1000));
+    }
+
+    @Test
+    void testParameterChangesEvents() throws Exception {
+        CompletableFuture<List<ParameterChangeInfos>> events = webTestClient.get()
+                .uri("/v1/parameters/events?appName=foo")
+                .header("userId", "userId")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<ParameterChangeInfos>>() { })
+                .getResponseBody()
+                .filter(event -> event.data() != null)
+                .map(ServerSentEvent::data)
+                .take(2)
+                .collectList()
+                .toFuture();
+
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/testKey?value=testValue")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        // loop back the notification as the broker would do
+        Message<byte[]> message = output.receive(1000);
+        input.send(message, "config.update");
+
+        // changes of another application or another user are filtered out
+        input.send(MessageBuilder.withPayload("")
+                .setHeader(HEADER_USER_ID, "userId")
+                .setHeader(HEADER_APP_NAME, "bar")
+                .setHeader(HEADER_PARAMETER_NAME, "testKey")
+                .build(), "config.update");
+        input.send(MessageBuilder.withPayload("")
+                .setHeader(HEADER_USER_ID, "otherUserId")
+                .setHeader(HEADER_APP_NAME, "foo")
+                .setHeader(HEADER_PARAMETER_NAME, "testKey")
+                .build(), "config.update");
+
+        input.send(MessageBuilder.withPayload("")
+                .setHeader(HEADER_USER_ID, "userId")
+                .setHeader(HEADER_APP_NAME, "foo")
+                .setHeader(HEADER_PARAMETER_NAME, "unknownKey")
+                .build(), "config.update");
+
+        assertEquals(List.of(new ParameterChangeInfos("foo", "testKey", "testValue"), new ParameterChangeInfos("foo", "unknownKey", null)),
+                events.get(5, TimeUnit.SECONDS));
+
+        assertNull(output.receive(1000));
+    }
+
+    @Test
+    void testLargeValueCompressed() {
+        String largeValue = IntStream.range(0, 1000).mapToObj(i -> UUID.nameUUIDFromBytes(new byte[] {(byte) i, (byte) (i >> 8)}).toString())
+                .collect(Collectors.joining(",", "[", "]"));
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("favoriteContingencyLists", largeValue);
+        parameters.put("theme", "dark");
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(parameters)
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        //the large value is only stored compressed
+        Map<String, Boolean> compressed = databaseClient.sql("SELECT name, value_ IS NULL AND value_compressed IS NOT NULL AS compressed FROM parameters")
+                .map(row -> Map.entry(row.get("name", String.class), row.get("compressed", Boolean.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+        assertEquals(Map.of("favoriteContingencyLists", true, "theme", false), compressed);
+
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .value(new MatcherConfigParamList(List.of(new ParameterInfos("favoriteContingencyLists", largeValue), new ParameterInfos("theme", "dark"))));
+
+        //a small value replacing a large one is stored uncompressed
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/favoriteContingencyLists?value=none")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters/favoriteContingencyLists")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParameterInfos.class)
+                .value(new MatcherConfigParam(new ParameterInfos("favoriteContingencyLists", "none")));
+        assertEquals(0L, databaseClient.sql("SELECT COUNT(*) AS count FROM parameters WHERE value_compressed IS NOT NULL")
+                .map(row -> row.get("count", Long.class))
+                .one()
+                .block());
+
+        assertNull(output.receive(1000));
+    }
+
+    private ParametersDeltaInfos getParametersDelta(String query) {
+        return webTestClient.get()
+                .uri("/v1/parameters/changes" + query)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParametersDeltaInfos.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Test
+    void testParametersDelta() {
+        ParametersDeltaInfos delta = getParametersDelta("");
+        assertEquals(0, delta.getSequence());
+        assertEquals(List.of(), delta.getChanges());
+
+        for (String uri : List.of("/v1/applications/foo/parameters/key1?value=value1", "/v1/applications/foo/parameters/key2?value=value2",
+                "/v1/applications/bar/parameters/key3?value=value3")) {
+            webTestClient.put()
+                    .uri(uri)
+                    .header("userId", "userId")
+                    .exchange()
+                    .expectStatus().isOk();
+            assertNotNull(output.receive(1000));
+        }
+
+        delta = getParametersDelta("?since=0");
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key1", "value1"), new ParameterChangeInfos("foo", "key2", "value2"),
+                new ParameterChangeInfos("bar", "key3", "value3")), delta.getChanges());
+        long sequence = delta.getSequence();
+
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/key1?value=newValue1")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("key1", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/key2")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("key2", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+
+        //deleting a missing parameter doesn't notify
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/key2")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .value(new MatcherConfigParamList(List.of(new ParameterInfos("key1", "newValue1"))));
+
+        //only the changes after the sequence number are returned, the deleted parameters without value
+        delta = getParametersDelta("?since=" + sequence);
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key1", "newValue1"), new ParameterChangeInfos("foo", "key2", null)), delta.getChanges());
+        assertTrue(delta.getSequence() > sequence);
+
+        delta = getParametersDelta("?appName=bar&since=" + sequence);
+        assertEquals(List.of(), delta.getChanges());
+        assertEquals(sequence, delta.getSequence());
+
+        //a parameter written again after its deletion isn't returned as deleted
+        sequence = getParametersDelta("?since=" + sequence).getSequence();
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/key2?value=newValue2")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("key2", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key2", "newValue2")), getParametersDelta("?since=0").getChanges().stream()
+                .filter(change -> change.getName().equals("key2")).toList());
+        delta = getParametersDelta("?appName=foo&since=" + sequence);
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key2", "newValue2")), delta.getChanges());
+
+        assertNull(output.receive(1000));
+    }
+
+    @Test
+    void testParametersDeltaAfterPurge() {
+        for (String name : List.of("key1", "key2")) {
+            webTestClient.put()
+                    .uri("/v1/applications/foo/parameters/" + name + "?value=value")
+                    .header("userId", "userId")
+                    .exchange()
+                    .expectStatus().isOk();
+            assertNotNull(output.receive(1000));
+        }
+        long sequence = getParametersDelta("?since=0").getSequence();
+
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/key1")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("key1", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+
+        //the tombstones within the retention period are kept
+        assertEquals(0, parameterTombstonesPurge.purge().block());
+        ParametersDeltaInfos delta = getParametersDelta("?since=" + sequence);
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key1", null)), delta.getChanges());
+        assertFalse(delta.isReset());
+
+        //once the deletion is purged, the deltas from before it return all the parameters
+        assertEquals(1, parameterTombstonesPurge.purge(OffsetDateTime.now().plusMinutes(1)).block());
+        delta = getParametersDelta("?since=" + sequence);
+        assertEquals(List.of(new ParameterChangeInfos("foo", "key2", "value")), delta.getChanges());
+        assertTrue(delta.isReset());
+
+        delta = getParametersDelta("?since=" + delta.getSequence());
+        assertEquals(List.of(), delta.getChanges());
+        assertFalse(delta.isReset());
+    }
+
+    @Test
+    void testSearchParameters() {
+        parametersRepository.upsert("user1", "common", "language", "fr")
+                .then(parametersRepository.upsert("user1", "common", "theme", "dark"))
+                .then(parametersRepository.upsert("user1", "foo", "language", "en"))
+                .then(parametersRepository.upsert("user2", "common", "language", "en"))
+                .then(parametersRepository.upsert("user3", "common", "theme", "light"))
+                .block();
+
+        webTestClient.post()
+                .uri("/v1/parameters/search")
+                .bodyValue(new ParametersSearchInfos(List.of("user2", "user1", "unknownUser", "user3"), "common", List.of("language")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserParametersInfos.class)
+                .isEqualTo(List.of(
+                        new UserParametersInfos("user1", List.of(new ParameterInfos("language", "fr"))),
+                        new UserParametersInfos("user2", List.of(new ParameterInfos("language", "en")))));
+
+        webTestClient.post()
+                .uri("/v1/parameters/search")
+                .bodyValue(new ParametersSearchInfos(List.of("user1", "user3"), null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserParametersInfos.class)
+                .value(users -> {
+                    assertEquals(List.of("user1", "user3"), users.stream().map(UserParametersInfos::getUserId).toList());
+                    assertEquals(Set.of(new ParameterInfos("language", "fr"), new ParameterInfos("theme", "dark"), new ParameterInfos("language", "en")),
+                            new HashSet<>(users.get(0).getParameters()));
+                    assertEquals(List.of(new ParameterInfos("theme", "light")), users.get(1).getParameters());
+                });
+
+        assertNull(output.receive(1000));
+    }
+
+    @Test
+    void testStreamParameters() {
+        parametersRepository.upsert("userId", "foo", "key1", "value1")
+                .then(parametersRepository.upsert("userId", "bar", "key2", "value2"))
+                .block();
+        webTestClient.put()
+                .uri("/v1/defaults/parameters/globalKey?value=globalValue")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000, "config.defaults.update"));
+        Set<ParameterInfos> expected = Set.of(new ParameterInfos("key1", "value1"), new ParameterInfos("key2", "value2"), new ParameterInfos("globalKey", "globalValue"));
+
+        List<ParameterInfos> parameters = webTestClient.get()
+                .uri("/v1/parameters")
+                .header("userId", "userId")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ParameterInfos.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertEquals(expected, new HashSet<>(parameters));
+        // the defaults follow the values of the user
+        assertEquals(new ParameterInfos("globalKey", "globalValue"), parameters.get(2));
+
+        webTestClient.get()
+                .uri("/v1/parameters?streaming=true")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBodyList(ParameterInfos.class)
+                .value(list -> assertEquals(expected, new HashSet<>(list)));
+
+        // the cached set, when any media type is accepted
+        webTestClient.get()
+                .uri("/v1/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBodyList(ParameterInfos.class)
+                .value(list -> assertEquals(expected, new HashSet<>(list)));
+
+        List<UserParametersInfos> users = webTestClient.post()
+                .uri("/v1/parameters/search")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(new ParametersSearchInfos(List.of("userId"), "foo", null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(UserParametersInfos.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertEquals(List.of(new UserParametersInfos("userId", List.of(new ParameterInfos("key1", "value1")))), users);
+    }
+
+    private long deleteParameters(String query) {
+        return webTestClient.delete()
+                .uri("/v1/parameters" + query)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    void testDeleteParameters() throws Exception {
+        parametersRepository.upsertAll("user1", "foo", Map.of("key1", "value1", "key2", "value2"))
+                .then(parametersRepository.upsert("user1", "bar", "key1", "value1"))
+                .then(parametersRepository.upsertAll("user2", "foo", Map.of("key1", "value1", "legacyKey1", "value1", "legacyKey2", "value2")))
+                .block();
+
+        // one message per application of the user
+        assertEquals(2, deleteParameters("?userId=user1&appName=foo"));
+        Message<byte[]> message = output.receive(1000);
+        assertEquals("user1", message.getHeaders().get(HEADER_USER_ID));
+        assertEquals("foo", message.getHeaders().get(HEADER_APP_NAME));
+        assertEquals(Set.of("key1", "key2"), new HashSet<>((List<?>) message.getHeaders().get(HEADER_PARAMETER_NAMES)));
+
+        CompletableFuture<ParameterChangeInfos> event = webTestClient.get()
+                .uri("/v1/parameters/events?appName=foo")
+                .header("userId", "user2")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<ParameterChangeInfos>>() { })
+                .getResponseBody()
+                .filter(sse -> sse.data() != null)
+                .map(ServerSentEvent::data)
+                .next()
+                .toFuture();
+
+        // one message per user and application for the parameters of several users
+        assertEquals(2, deleteParameters("?name=key1"));
+        Set<List<Object>> deletions = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            message = output.receive(1000);
+            deletions.add(List.of(message.getHeaders().get(HEADER_USER_ID), message.getHeaders().get(HEADER_APP_NAME),
+                    message.getHeaders().get(HEADER_PARAMETER_NAMES)));
+            // loop back the notification as the broker would do
+            input.send(message, "config.update");
+        }
+        assertEquals(Set.of(List.of("user1", "bar", List.of("key1")), List.of("user2", "foo", List.of("key1"))), deletions);
+        // the subscribers of the users get the deletions
+        assertEquals(new ParameterChangeInfos("foo", "key1", null), event.get(5, TimeUnit.SECONDS));
+
+        // nothing deleted, nothing notified
+        assertEquals(0, deleteParameters("?name=key1"));
+
+        // a chunk per parameter
+        assertEquals(List.of("legacyKey1", "legacyKey2"), parametersRepository.deleteAllMatching(null, "foo", null, "legacy%", 1)
+                .map(ParameterTombstoneEntity::getName)
+                .sort()
+                .collectList()
+                .block());
+        assertEquals(0L, parametersRepository.count().block());
+
+        // the deletions are returned as changes
+        assertEquals(Set.of(new ParameterChangeInfos("foo", "key1", null), new ParameterChangeInfos("foo", "legacyKey1", null),
+                new ParameterChangeInfos("foo", "legacyKey2", null)), new HashSet<>(webTestClient.get()
+                .uri("/v1/parameters/changes?since=0")
+                .header("userId", "user2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParametersDeltaInfos.class)
+                .returnResult().getResponseBody().getChanges()));
+
+        // the parameters of all the users are only deleted on explicit request
+        webTestClient.delete()
+                .uri("/v1/parameters")
+                .exchange()
+                .expectStatus().isBadRequest();
+        assertEquals(0, deleteParameters("?all=true"));
+        assertNull(output.receive(1000));
+    }
+
+    @Test
+    void testConcurrentLoadsShared() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Mono<CachedParameters>> loader = () -> Mono.defer(() -> {
+            loads.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(200)).thenReturn(CachedParameters.of(List.of(new ParameterInfos("key", "value")), objectMapper));
+        });
+
+        // a single load for the concurrent reads, its result is cached
+        List<CachedParameters> results = Flux.range(0, 10)
+                .flatMap(i -> parametersCache.get("sharedUser", "shared", loader))
+                .collectList()
+                .block();
+        assertEquals(1, loads.get());
+        assertEquals(1, results.stream().distinct().count());
+        parametersCache.get("sharedUser", "shared", loader).block();
+        assertEquals(1, loads.get());
+
+        // the reads following an eviction don't share the load started before it
+        parametersCache.evict("sharedUser", "shared");
+        Disposable before = parametersCache.get("sharedUser", "shared", loader).subscribe();
+        parametersCache.evict("sharedUser", "shared");
+        parametersCache.get("sharedUser", "shared", loader).block();
+        assertEquals(3, loads.get());
+        before.dispose();
+
+        // a cancelled load isn't shared anymore
+        parametersCache.evictAll();
+        parametersCache.get("sharedUser", "shared", loader).subscribe().dispose();
+        parametersCache.get("sharedUser", "shared", loader).block();
+        assertEquals(5, loads.get());
+
+        // the errors are shared by the concurrent reads, and not kept
+        parametersCache.evictAll();
+        AtomicInteger failures = new AtomicInteger();
+        Supplier<Mono<CachedParameters>> failingLoader = () -> Mono.defer(() -> {
+            failures.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(200)).then(Mono.error(new IllegalStateException("failure")));
+        });
+        assertEquals(List.of(), Flux.range(0, 10)
+                .flatMap(i -> parametersCache.get("sharedUser", "shared", failingLoader).onErrorResume(IllegalStateException.class, e -> Mono.empty()))
+                .collectList()
+                .block());
+        assertEquals(1, failures.get());
+        parametersCache.get("sharedUser", "shared", loader).block();
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void testEvictionOnlyPreventsCachingOfItsSets() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Mono<CachedParameters>> loader = () -> Mono.defer(() -> {
+            loads.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(200)).thenReturn(CachedParameters.of(List.of(new ParameterInfos("key", "value")), objectMapper));
+        });
+
+        // the eviction of the sets of another user during the loads
+        CompletableFuture<CachedParameters> evicted = parametersCache.get("evictedUser", "foo", loader).toFuture();
+        CompletableFuture<CachedParameters> other = parametersCache.get("otherUser", "foo", loader).toFuture();
+        parametersCache.evict("evictedUser", "foo");
+        evicted.join();
+        other.join();
+        assertEquals(2, loads.get());
+
+        // only the set loaded concurrently with its eviction is loaded again
+        parametersCache.get("otherUser", "foo", loader).block();
+        assertEquals(2, loads.get());
+        parametersCache.get("evictedUser", "foo", loader).block();
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testMetrics() {
+        webTestClient.put()
+                .uri("/v1/applications/metrics/parameters/testKey?value=testValue")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.put()
+                .uri("/v1/applications/metrics/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("testKey1", "testValue1", "testKey2", "testValue2"))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get()
+                .uri("/v1/applications/metrics/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        output.receive(1000);
+        output.receive(1000);
+
+        assertEquals(1, meterRegistry.get(OPERATION_METER).tag(OPERATION_TAG, "updateConfigParameter").tag(APP_NAME_TAG, "metrics").timer().count());
+        assertEquals(1, meterRegistry.get(OPERATION_METER).tag(OPERATION_TAG, "updateConfigParameters").tag(APP_NAME_TAG, "metrics").timer().count());
+        assertEquals(1, meterRegistry.get(OPERATION_METER).tag(OPERATION_TAG, "getConfigParameters").tag(APP_NAME_TAG, "metrics").timer().count());
+        assertTrue(meterRegistry.get(QUERY_METER).tag(QUERY_TAG, "upsertAll").timer().count() >= 1);
+        assertTrue(meterRegistry.get(QUERY_METER).tag(QUERY_TAG, "findAllByUserIdAndAppName").timer().count() >= 1);
+        assertTrue(meterRegistry.get(BULK_SIZE_METER).summary().count() >= 1);
+        assertTrue(meterRegistry.get(ROWS_METER).summary().count() >= 1);
+
+        assertNull(output.receive(1000));
+        // recorded by the publishing thread once the messages are sent
+        assertTrue(meterRegistry.get(NOTIFICATION_METER).timer().count() >= 2);
+        assertEquals(0, meterRegistry.get(NOTIFICATION_QUEUE_METER).gauge().value());
+    }
+
+    @Test
+    void testMetricsOfAppNamesBeyondTheLimit() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(appNameCardinalityFilter(2));
+        for (String appName : List.of("app1", "app2", "app3", "app1", "app4")) {
+            registry.timer(OPERATION_METER, OPERATION_TAG, "getConfigParameters", APP_NAME_TAG, appName).record(Duration.ofMillis(1));
+        }
+
+        // the operations of the next applications are still timed
+        assertEquals(2, registry.get(OPERATION_METER).tag(APP_NAME_TAG, "app1").timer().count());
+        assertEquals(1, registry.get(OPERATION_METER).tag(APP_NAME_TAG, "app2").timer().count());
+        assertEquals(2, registry.get(OPERATION_METER).tag(APP_NAME_TAG, OTHER_APPLICATIONS).timer().count());
+        assertEquals(3, registry.get(OPERATION_METER).timers().size());
+    }
+
+    @Test
+    void testConnectionPoolMetrics() {
+        assertTrue(meterRegistry.get("r2dbc.pool.allocated").gauge().value() >= 1);
+        assertEquals(0, meterRegistry.get("r2dbc.pool.pending").gauge().value());
+        meterRegistry.get("r2dbc.pool.acquired").gauge();
+        meterRegistry.get("r2dbc.pool.idle").gauge();
+    }
 }
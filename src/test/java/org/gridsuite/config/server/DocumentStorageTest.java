@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.dto.ParameterChangeInfos;
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.dto.ParametersDeltaInfos;
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.gridsuite.config.server.service.NotificationService.HEADER_PARAMETER_NAMES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@AutoConfigureWebTestClient
+@EnableWebFlux
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class},
+        properties = {
+            "config.storage.mode=document",
+            // run by the tests
+            "config.storage.migration.enabled=false"
+        })
+class DocumentStorageTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @AfterEach
+    void tearDown() {
+        databaseClient.sql("DELETE FROM parameters_documents").then().block();
+        databaseClient.sql("DELETE FROM parameters_tombstones").then().block();
+        parametersRepository.deleteAll().block();
+        parametersCache.evictAll();
+        assertNull(output.receive(1000), "Should not be any messages");
+    }
+
+    private List<ParameterInfos> getParameters(String appName) {
+        return webTestClient.get()
+                .uri("/v1/applications/{appName}/parameters", appName)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .returnResult().getResponseBody();
+    }
+
+    private ParametersDeltaInfos getParametersDelta(long since) {
+        return webTestClient.get()
+                .uri("/v1/parameters/changes?since={since}", since)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParametersDeltaInfos.class)
+                .returnResult().getResponseBody();
+    }
+
+    private long countDocuments() {
+        return databaseClient.sql("SELECT COUNT(*) AS documents FROM parameters_documents")
+                .map(row -> row.get("documents", Long.class))
+                .one().block();
+    }
+
+    @Test
+    void testDocumentStorage() {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("key1", "value1", "key2", "value2"))
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/key3?value=value3")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        webTestClient.put()
+                .uri("/v1/applications/bar/parameters/key1?value=value4")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        // one document per application, the written keys are merged into the stored document
+        assertEquals(2, countDocuments());
+        assertEquals(0L, parametersRepository.count().block());
+        List<ParameterInfos> parameters = getParameters("foo");
+        assertEquals(3, parameters.size());
+        assertTrue(parameters.containsAll(List.of(new ParameterInfos("key1", "value1"), new ParameterInfos("key2", "value2"), new ParameterInfos("key3", "value3"))));
+        assertEquals(List.of(new ParameterInfos("key1", "value4")), getParameters("bar"));
+
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters/key2")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParameterInfos.class)
+                .isEqualTo(new ParameterInfos("key2", "value2"));
+
+        long sequence = getParametersDelta(0).getSequence();
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/key1?value=newValue1")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/key2")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("key2", output.receive(1000).getHeaders().get("parameterName"));
+        // deleting a missing key doesn't notify
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/key2")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+
+        parameters = getParameters("foo");
+        assertEquals(2, parameters.size());
+        assertTrue(parameters.containsAll(List.of(new ParameterInfos("key1", "newValue1"), new ParameterInfos("key3", "value3"))));
+
+        // all the parameters of the changed document are returned, then the deleted ones
+        ParametersDeltaInfos delta = getParametersDelta(sequence);
+        assertEquals(3, delta.getChanges().size());
+        assertTrue(delta.getChanges().containsAll(List.of(new ParameterChangeInfos("foo", "key1", "newValue1"), new ParameterChangeInfos("foo", "key3", "value3"))));
+        assertEquals(new ParameterChangeInfos("foo", "key2", null), delta.getChanges().get(2));
+        assertTrue(delta.getSequence() > sequence);
+    }
+
+    @Test
+    void testDeleteParameters() {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("key1", "value1", "legacyKey1", "value1", "legacyKey2", "value2"))
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        long sequence = getParametersDelta(0).getSequence();
+
+        assertEquals(2L, webTestClient.delete()
+                .uri("/v1/parameters?userId=userId&namePattern={namePattern}", "legacy%")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class)
+                .returnResult().getResponseBody());
+        assertEquals(Set.of("legacyKey1", "legacyKey2"), new HashSet<>((List<?>) output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAMES)));
+        assertEquals(List.of(new ParameterInfos("key1", "value1")), getParameters("foo"));
+        assertEquals(1, countDocuments());
+
+        // the removed keys are recorded as tombstones with the update of the document
+        assertEquals(List.of("legacyKey1", "legacyKey2"), databaseClient.sql("SELECT name FROM parameters_tombstones WHERE user_id = 'userId' ORDER BY name")
+                .map(row -> row.get("name", String.class))
+                .all()
+                .collectList()
+                .block());
+        ParametersDeltaInfos delta = getParametersDelta(sequence);
+        assertEquals(Set.of(new ParameterChangeInfos("foo", "key1", "value1"), new ParameterChangeInfos("foo", "legacyKey1", null),
+                new ParameterChangeInfos("foo", "legacyKey2", null)), new HashSet<>(delta.getChanges()));
+        assertTrue(delta.getSequence() > sequence);
+
+        // nothing left to delete, nothing recorded
+        assertEquals(0L, webTestClient.delete()
+                .uri("/v1/parameters?userId=userId&namePattern={namePattern}", "legacy%")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class)
+                .returnResult().getResponseBody());
+        assertEquals(delta.getSequence(), getParametersDelta(0).getSequence());
+    }
+
+    @Test
+    void testMigration(@Autowired ParameterDocumentsMigration migration) {
+        parametersRepository.upsertAll("userId", "foo", Map.of("key1", "value1", "key2", "value2")).block();
+        parametersRepository.upsertAll("userId", "bar", Map.of("key3", "value3", "key4", "value4")).block();
+        parametersRepository.upsertAll("otherUserId", "foo", Map.of("key1", "otherValue1")).block();
+        // no document for the rows without application, skipped
+        databaseClient.sql("INSERT INTO parameters (id, user_id, app_name, name, value_) VALUES (:id, 'userId', NULL, 'key5', 'value5')")
+                .bind("id", UUID.randomUUID())
+                .then().block();
+        // written in document mode before the migration, not overwritten, the other keys of the rows being added
+        webTestClient.put()
+                .uri("/v1/applications/bar/parameters/key3?value=newValue3")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        migration.run(null);
+
+        assertEquals(3, countDocuments());
+        List<ParameterInfos> parameters = getParameters("foo");
+        assertEquals(2, parameters.size());
+        assertTrue(parameters.containsAll(List.of(new ParameterInfos("key1", "value1"), new ParameterInfos("key2", "value2"))));
+        parameters = getParameters("bar");
+        assertEquals(2, parameters.size());
+        assertTrue(parameters.containsAll(List.of(new ParameterInfos("key3", "newValue3"), new ParameterInfos("key4", "value4"))));
+
+        // run again after a failure, the complete documents aren't written again
+        long sequence = getParametersDelta(0).getSequence();
+        migration.run(null);
+        assertEquals(3, countDocuments());
+        assertEquals(sequence, getParametersDelta(0).getSequence());
+    }
+}
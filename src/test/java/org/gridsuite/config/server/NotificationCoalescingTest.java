@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.service.NotificationService;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.gridsuite.config.server.service.NotificationService.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@AutoConfigureWebTestClient
+@EnableWebFlux
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class},
+        properties = {
+            "config.notification.coalescing.enabled=true",
+            "config.notification.coalescing.window=500ms",
+            "config.notification.coalescing.max-delay=2s"
+        })
+class NotificationCoalescingTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @AfterEach
+    void tearDown() {
+        parametersRepository.deleteAll().block();
+        parametersCache.evictAll();
+    }
+
+    @Test
+    void testBurstOfUpdatesIsCoalesced() {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/testKey1?value=testValue1")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/testKey2?value=testValue2")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("testKey1", "testUpdatedValue1"))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.put()
+                .uri("/v1/applications/bar/parameters/testKey3?value=testValue3")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+
+        // one message per user and application, carrying all the changed parameter names
+        Message<byte[]> message = output.receive(3000);
+        MessageHeaders headers = message.getHeaders();
+        assertEquals("userId", headers.get(HEADER_USER_ID));
+        assertEquals("foo", headers.get(HEADER_APP_NAME));
+        assertNull(headers.get(HEADER_PARAMETER_NAME));
+        assertEquals(List.of("testKey1", "testKey2"), headers.get(HEADER_PARAMETER_NAMES));
+
+        message = output.receive(3000);
+        headers = message.getHeaders();
+        assertEquals("userId", headers.get(HEADER_USER_ID));
+        assertEquals("bar", headers.get(HEADER_APP_NAME));
+        assertEquals("testKey3", headers.get(HEADER_PARAMETER_NAME));
+        assertEquals(List.of("testKey3"), headers.get(HEADER_PARAMETER_NAMES));
+
+        assertNull(output.receive(1000));
+    }
+
+    @Test
+    void testPendingChangesSentBeforeBindingsStop() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ConfigApplication.class, TestChannelBinderConfiguration.class)
+                .run("--server.port=0", "--config.notification.coalescing.enabled=true", "--config.notification.coalescing.window=1m",
+                        "--config.notification.coalescing.max-delay=1m");
+        OutputDestination contextOutput = context.getBean(OutputDestination.class);
+        context.getBean(NotificationService.class).emitConfigParameterChanges("userId", "foo", Map.of("testKey1", "testValue1"), 1);
+        assertNull(contextOutput.receive(500));
+
+        // sent on shutdown, while the output bindings are still open
+        context.close();
+        Message<byte[]> message = contextOutput.receive(1000);
+        assertNotNull(message);
+        assertEquals("testKey1", message.getHeaders().get(HEADER_PARAMETER_NAME));
+    }
+}
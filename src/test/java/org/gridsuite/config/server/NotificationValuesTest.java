@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.messaging.Message;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.gridsuite.config.server.service.NotificationService.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@AutoConfigureWebTestClient
+@EnableWebFlux
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class},
+        properties = {
+            "config.notification.values.enabled=true",
+            "config.notification.values.max-size=100"
+        })
+class NotificationValuesTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @AfterEach
+    void tearDown() {
+        parametersRepository.deleteAll().block();
+        parametersCache.evictAll();
+    }
+
+    private static String getPayload(Message<byte[]> message) {
+        return new String(message.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testValuesInPayload() {
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/theme?value=dark")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        Message<byte[]> message = output.receive(1000);
+        assertEquals(true, message.getHeaders().get(HEADER_VALUES_INCLUDED));
+        assertEquals("{\"theme\":\"dark\"}", getPayload(message));
+        long version = (Long) message.getHeaders().get(HEADER_VERSION);
+
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("language", "fr"))
+                .exchange()
+                .expectStatus().isOk();
+        message = output.receive(1000);
+        assertEquals(true, message.getHeaders().get(HEADER_VALUES_INCLUDED));
+        assertEquals("{\"language\":\"fr\"}", getPayload(message));
+        assertTrue((Long) message.getHeaders().get(HEADER_VERSION) > version);
+
+        //the deleted parameters have a null value
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/theme")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        message = output.receive(1000);
+        assertEquals(true, message.getHeaders().get(HEADER_VALUES_INCLUDED));
+        assertEquals("{\"theme\":null}", getPayload(message));
+
+        //above the max size, only the names are sent
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/favoriteContingencyLists?value={value}", "x".repeat(200))
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        message = output.receive(1000);
+        assertEquals(false, message.getHeaders().get(HEADER_VALUES_INCLUDED));
+        assertEquals("", getPayload(message));
+        assertEquals(List.of("favoriteContingencyLists"), message.getHeaders().get(HEADER_PARAMETER_NAMES));
+
+        assertNull(output.receive(1000));
+    }
+}
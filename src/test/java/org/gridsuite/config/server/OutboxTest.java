@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.repository.OutboxEntity;
+import org.gridsuite.config.server.repository.OutboxRepository;
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.service.NotificationOutbox;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.gridsuite.config.server.service.NotificationService.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@AutoConfigureWebTestClient
+@EnableWebFlux
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class},
+        properties = {
+            "config.notification.outbox.enabled=true",
+            // relayed by the tests
+            "config.notification.outbox.poll-interval=1h",
+            "config.notification.outbox.batch-size=2"
+        })
+class OutboxTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll().block();
+        parametersRepository.deleteAll().block();
+        parametersCache.evictAll();
+    }
+
+    private void updateParameter(String appName, String name, String value) {
+        webTestClient.put()
+                .uri("/v1/applications/{appName}/parameters/{name}?value={value}", appName, name, value)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void testChangesRelayedFromOutbox() {
+        updateParameter("foo", "key1", "value1");
+        updateParameter("bar", "key2", "value2");
+        updateParameter("foo", "key1", "value3");
+        webTestClient.delete()
+                .uri("/v1/applications/foo/parameters/key1")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+
+        //recorded with the parameters, not sent yet
+        assertEquals(4, outboxRepository.count().block());
+        assertNull(output.receive(1000));
+
+        notificationOutbox.relay().block();
+
+        //one message per user and application of each batch, in the order of the changes
+        List<MessageHeaders> messages = List.of(output.receive(1000).getHeaders(), output.receive(1000).getHeaders(), output.receive(1000).getHeaders());
+        assertNull(output.receive(1000));
+        assertEquals(List.of("foo", "bar", "foo"), messages.stream().map(headers -> headers.get(HEADER_APP_NAME)).toList());
+        assertEquals(List.of("key1"), messages.get(0).get(HEADER_PARAMETER_NAMES));
+        assertEquals(List.of("key2"), messages.get(1).get(HEADER_PARAMETER_NAMES));
+        assertEquals(List.of("key1"), messages.get(2).get(HEADER_PARAMETER_NAMES));
+        assertTrue((Long) messages.get(2).get(HEADER_VERSION) > (Long) messages.get(0).get(HEADER_VERSION));
+
+        //the sent rows are deleted
+        assertEquals(0, outboxRepository.count().block());
+    }
+
+    @Test
+    void testClaimedChangesNotRelayedTwice() {
+        updateParameter("foo", "key1", "value1");
+
+        //claimed by another relay, sending them
+        OffsetDateTime now = OffsetDateTime.now();
+        List<OutboxEntity> claimed = outboxRepository.claimBatch(2, now, now.plusMinutes(1)).collectList().block();
+        assertEquals(1, claimed.size());
+        updateParameter("bar", "key2", "value2");
+        notificationOutbox.relay().block();
+        assertNull(output.receive(1000));
+
+        //sent again once released, or after the claim expired
+        outboxRepository.releaseClaims(List.of(claimed.get(0).getId())).block();
+        notificationOutbox.relay().block();
+        assertEquals("foo", output.receive(1000).getHeaders().get(HEADER_APP_NAME));
+        assertEquals("bar", output.receive(1000).getHeaders().get(HEADER_APP_NAME));
+        assertEquals(0, outboxRepository.count().block());
+    }
+
+    @Test
+    void testChangesRelayedBeforeBindingsStop() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ConfigApplication.class, TestChannelBinderConfiguration.class)
+                .run("--server.port=0", "--config.notification.outbox.enabled=true", "--config.notification.outbox.poll-interval=1h");
+        OutputDestination contextOutput = context.getBean(OutputDestination.class);
+        context.getBean(NotificationOutbox.class).record("userId", "foo", Map.of("key1", "value1"), 1).block();
+
+        // relayed on shutdown, while the output bindings are still open
+        context.close();
+        Message<byte[]> message = contextOutput.receive(1000);
+        assertNotNull(message);
+        assertEquals("key1", message.getHeaders().get(HEADER_PARAMETER_NAME));
+    }
+
+    @Test
+    void testRolledBackChangesNotRecorded() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("key", "value");
+        // longer than the name column
+        parameters.put("x".repeat(300), "value");
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(parameters)
+                .exchange()
+                .expectStatus().is5xxServerError();
+
+        assertEquals(0, outboxRepository.count().block());
+        notificationOutbox.relay().block();
+        assertNull(output.receive(1000));
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.repository.ParameterTombstoneEntity;
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.gridsuite.config.server.service.NotificationService.HEADER_APP_NAME;
+import static org.gridsuite.config.server.service.NotificationService.HEADER_USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@AutoConfigureWebTestClient
+@EnableWebFlux
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class},
+        properties = {
+            "config.registry.enabled=true",
+            // run by the tests
+            "config.registry.compaction-interval=PT1H",
+            "config.registry.applications.foo.theme.max-size=5",
+            "config.registry.applications.foo.count.type=integer",
+            "config.registry.applications.foo.enabled.type=boolean"
+        })
+class ParameterRegistryTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @Autowired
+    private ParameterNamesCompaction compaction;
+
+    @AfterEach
+    void tearDown() {
+        parametersRepository.deleteAll().block();
+        entityTemplate.delete(ParameterTombstoneEntity.class).all().block();
+        parametersCache.evictAll();
+        assertNull(output.receive(1000), "Should not be any messages");
+    }
+
+    private WebTestClient.ResponseSpec updateParameter(String appName, String name, String value) {
+        return webTestClient.put()
+                .uri("/v1/applications/{appName}/parameters/{name}?value={value}", appName, name, value)
+                .header("userId", "userId")
+                .exchange();
+    }
+
+    private WebTestClient.ResponseSpec updateParameters(Map<String, Object> parameters) {
+        return webTestClient.put()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .bodyValue(parameters)
+                .exchange();
+    }
+
+    private List<ParameterInfos> getParameters(String appName) {
+        return webTestClient.get()
+                .uri("/v1/applications/{appName}/parameters", appName)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    void testValidation() {
+        updateParameter("foo", "theme", "dark").expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        updateParameters(Map.of("count", 3, "enabled", true)).expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        // unregistered name
+        updateParameter("foo", "unknown", "value").expectStatus().isBadRequest();
+        // too long
+        updateParameter("foo", "theme", "darker").expectStatus().isBadRequest();
+        // not of the registered type
+        updateParameter("foo", "count", "three").expectStatus().isBadRequest();
+        updateParameter("foo", "enabled", "yes").expectStatus().isBadRequest();
+        // none of the values is written when one of them is invalid
+        updateParameters(Map.of("theme", "light", "count", 1.5)).expectStatus().isBadRequest();
+
+        // the applications missing from the registry aren't constrained
+        updateParameter("bar", "anyName", "anyValue").expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        assertEquals(4L, parametersRepository.count().block());
+        assertEquals("dark", parametersRepository.findByUserIdAndAppNameAndName("userId", "foo", "theme").block().getValue());
+        assertEquals("3", parametersRepository.findByUserIdAndAppNameAndName("userId", "foo", "count").block().getValue());
+    }
+
+    @Test
+    void testCompaction() {
+        updateParameter("foo", "theme", "dark").expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+        // written before their names were unregistered
+        parametersRepository.upsertAll("userId", "foo", Map.of("oldName1", "value1", "oldName2", "value2")).block();
+        parametersRepository.upsertAll("otherUserId", "foo", Map.of("oldName1", "value3")).block();
+        // an application missing from the registry is left alone
+        parametersRepository.upsertAll("otherUserId", "bar", Map.of("theme", "light", "anyName", "anyValue")).block();
+
+        assertEquals(3L, compaction.compact().block());
+        // the deletions of the application are notified per user
+        Set<Object> users = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            Message<byte[]> message = output.receive(1000);
+            assertEquals("foo", message.getHeaders().get(HEADER_APP_NAME));
+            users.add(message.getHeaders().get(HEADER_USER_ID));
+        }
+        assertEquals(Set.of("userId", "otherUserId"), users);
+        assertEquals(List.of(new ParameterInfos("theme", "dark")), getParameters("foo"));
+        assertEquals(3L, parametersRepository.count().block());
+        assertEquals(2L, parametersRepository.findAllByUserIdAndAppName("otherUserId", "bar").count().block());
+
+        assertEquals(0L, compaction.compact().block());
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.r2dbc.spi.ConnectionFactories;
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The replica is a second embedded database, not replicated: the values read from the primary and from the replica
+ * are different. The read-your-writes window is measured with a ticker advanced by the tests.
+ */
+@AutoConfigureWebTestClient
+@EnableWebFlux
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class, ReadReplicaTest.TickerConfiguration.class},
+        properties = {
+            "config.r2dbc.replica.url=" + ReadReplicaTest.REPLICA_URL,
+            "config.r2dbc.replica.read-your-writes-window=PT2S",
+            // the reads go to the databases
+            "config.cache.enabled=false"
+        })
+class ReadReplicaTest {
+
+    static final String REPLICA_URL = "r2dbc:h2:mem:///replica?options=DB_CLOSE_DELAY=-1";
+
+    private static final AtomicLong NANOS = new AtomicLong();
+
+    @TestConfiguration
+    static class TickerConfiguration {
+
+        @Bean
+        Ticker ticker() {
+            return NANOS::get;
+        }
+    }
+
+    private final DatabaseClient replicaClient = DatabaseClient.create(ConnectionFactories.get(REPLICA_URL));
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @BeforeEach
+    void setUp() {
+        replicaClient.sql("""
+                CREATE TABLE IF NOT EXISTS parameters (id UUID PRIMARY KEY, user_id VARCHAR(255), app_name VARCHAR(255), name VARCHAR(255),
+                value_ VARCHAR(4000), value_compressed VARBINARY, change_seq BIGINT)
+                """).then().block();
+        replicaClient.sql("INSERT INTO parameters VALUES (RANDOM_UUID(), 'userId', 'foo', 'key1', 'replicaValue', NULL, 1)").then().block();
+        parametersRepository.upsert("userId", "foo", "key1", "primaryValue").block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaClient.sql("DELETE FROM parameters").then().block();
+        parametersRepository.deleteAll().block();
+        assertNull(output.receive(1000), "Should not be any messages");
+    }
+
+    private void assertParameter(String value) {
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .isEqualTo(List.of(new ParameterInfos("key1", value)));
+        webTestClient.get()
+                .uri("/v1/applications/foo/parameters/key1")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParameterInfos.class)
+                .isEqualTo(new ParameterInfos("key1", value));
+    }
+
+    @Test
+    void testReadsRoutedToReplica() {
+        assertParameter("replicaValue");
+
+        webTestClient.put()
+                .uri("/v1/applications/foo/parameters/key1?value=newValue")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+        assertNotNull(output.receive(1000));
+
+        // the writes go to the primary, where the user reads them during the window
+        assertEquals("newValue", parametersRepository.findByUserIdAndAppNameAndName("userId", "foo", "key1").block().getValue());
+        assertParameter("newValue");
+        NANOS.addAndGet(Duration.ofMillis(1900).toNanos());
+        assertParameter("newValue");
+
+        // back to the replica at the end of the window
+        NANOS.addAndGet(Duration.ofMillis(200).toNanos());
+        assertParameter("replicaValue");
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.config.server;
+
+import org.gridsuite.config.server.dto.ParameterInfos;
+import org.gridsuite.config.server.repository.ParameterEntity;
+import org.gridsuite.config.server.repository.ParametersRepository;
+import org.gridsuite.config.server.service.ParametersCache;
+import org.gridsuite.config.server.service.WriteBehindBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.gridsuite.config.server.service.NotificationService.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@AutoConfigureWebTestClient
+@EnableWebFlux
+@SpringBootTest(classes = {ConfigApplication.class, TestChannelBinderConfiguration.class},
+        properties = {
+            "config.write-behind.app-names=buffered",
+            "config.write-behind.parameter-names=lastSelection",
+            // flushed by the tests
+            "config.write-behind.flush-interval=1h"
+        })
+class WriteBehindTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private ParametersRepository parametersRepository;
+
+    @Autowired
+    private ParametersCache parametersCache;
+
+    @Autowired
+    private WriteBehindBuffer writeBehindBuffer;
+
+    @AfterEach
+    void tearDown() {
+        writeBehindBuffer.flush().block();
+        output.clear();
+        parametersRepository.deleteAll().block();
+        parametersCache.evictAll();
+    }
+
+    private void updateParameter(String appName, String name, String value) {
+        webTestClient.put()
+                .uri("/v1/applications/{appName}/parameters/{name}?value={value}", appName, name, value)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private List<ParameterInfos> getParameters(String uri) {
+        return webTestClient.get()
+                .uri(uri)
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParameterInfos.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Test
+    void testBufferedWritesAreCoalesced() {
+        updateParameter("buffered", "zoom", "1");
+        updateParameter("buffered", "zoom", "2");
+        updateParameter("buffered", "center", "0,0");
+        updateParameter("foo", "lastSelection", "line1");
+        updateParameter("foo", "theme", "dark");
+
+        //only the parameter not buffered is written right away
+        assertEquals("theme", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+        assertEquals(List.of("theme"), parametersRepository.findAll().map(ParameterEntity::getName).collectList().block());
+
+        //the buffered values are read on this instance
+        assertEquals(List.of(new ParameterInfos("zoom", "2"), new ParameterInfos("center", "0,0")), getParameters("/v1/applications/buffered/parameters"));
+        assertEquals(List.of(new ParameterInfos("theme", "dark"), new ParameterInfos("lastSelection", "line1")), getParameters("/v1/applications/foo/parameters"));
+        assertNull(output.receive(1000));
+
+        writeBehindBuffer.flush().block();
+
+        //one message per user and application
+        Map<Object, Object> namesByApplication = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            MessageHeaders headers = output.receive(1000).getHeaders();
+            namesByApplication.put(headers.get(HEADER_APP_NAME), headers.get(HEADER_PARAMETER_NAMES));
+        }
+        assertEquals(Map.of("buffered", List.of("zoom", "center"), "foo", List.of("lastSelection")), namesByApplication);
+        assertNull(output.receive(1000));
+
+        assertEquals(Map.of("zoom", "2", "center", "0,0", "theme", "dark", "lastSelection", "line1"),
+                parametersRepository.findAll().collectMap(ParameterEntity::getName, ParameterEntity::getValue).block());
+        assertEquals(List.of(new ParameterInfos("zoom", "2"), new ParameterInfos("center", "0,0")), getParameters("/v1/applications/buffered/parameters"));
+    }
+
+    @Test
+    void testBufferedWritesAreWrittenBeforeReadingAllApplications() {
+        updateParameter("buffered", "zoom", "1");
+
+        assertEquals(List.of(new ParameterInfos("zoom", "1")), getParameters("/v1/parameters"));
+        assertEquals("zoom", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+        assertEquals(1, parametersRepository.findAll().count().block());
+    }
+
+    @Test
+    void testDirectWritesDiscardBufferedValues() {
+        updateParameter("buffered", "zoom", "1");
+        updateParameter("buffered", "center", "0,0");
+
+        webTestClient.put()
+                .uri("/v1/applications/buffered/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("zoom", "3"))
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals("zoom", output.receive(1000).getHeaders().get(HEADER_PARAMETER_NAME));
+
+        webTestClient.delete()
+                .uri("/v1/applications/buffered/parameters/center")
+                .header("userId", "userId")
+                .exchange()
+                .expectStatus().isOk();
+
+        writeBehindBuffer.flush().block();
+        assertNull(output.receive(1000));
+        assertEquals(List.of(new ParameterInfos("zoom", "3")), getParameters("/v1/applications/buffered/parameters"));
+    }
+
+    @Test
+    void testDirectWritesWaitForTheFlushInProgress() {
+        updateParameter("buffered", "zoom", "1");
+
+        //the buffered value is read when the flush starts
+        CompletableFuture<Void> flush = writeBehindBuffer.flush().toFuture();
+        webTestClient.put()
+                .uri("/v1/applications/buffered/parameters")
+                .header("userId", "userId")
+                .bodyValue(Map.of("zoom", "3"))
+                .exchange()
+                .expectStatus().isOk();
+        flush.join();
+
+        //written after the older buffered value
+        assertEquals(Map.of("zoom", "3"), parametersRepository.findAll().collectMap(ParameterEntity::getName, ParameterEntity::getValue).block());
+        assertEquals(List.of(new ParameterInfos("zoom", "3")), getParameters("/v1/applications/buffered/parameters"));
+    }
+}